@@ -0,0 +1,229 @@
+package com.carselling;
+
+import com.carselling.controllers.Navigator;
+import com.carselling.database.DatabaseConnection;
+import com.carselling.database.Repositories;
+import com.carselling.database.SchemaInitializer;
+import com.carselling.services.CarService;
+import com.carselling.utils.ConfigLoader;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the application behind a splash screen. The database stages (driver, connection
+ * handshake, schema check) run in order on one background thread while the login view
+ * is loaded on another; the login window replaces the splash once both are done. The
+ * stylesheet is parsed by the first scene, on the FX thread.
+ *
+ * Each stage's duration and the time from JVM start to the first window are printed, and
+ * appended to {@code startup.metricsFile} when set. With {@code startup.firstWindowBudgetMs}
+ * a slower start is reported as an error, and {@code startup.exitAfterFirstWindow} quits
+ * right after the window appears (exit code 1 when over budget) so startup can be timed
+ * from a script.
+ */
+final class StartupPipeline {
+
+    private static final String STYLESHEET = "/styles.css";
+
+    private static final String METRICS_FILE = ConfigLoader.getProperty("startup.metricsFile", "");
+    private static final long FIRST_WINDOW_BUDGET_MS = ConfigLoader.getLongProperty("startup.firstWindowBudgetMs", 0);
+    private static final boolean EXIT_AFTER_FIRST_WINDOW = ConfigLoader.getBooleanProperty("startup.exitAfterFirstWindow", false);
+
+    private final Stage primaryStage;
+    // Measured from JVM start, so class loading and toolkit startup count too
+    private final long jvmStartMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final Map<String, Long> stageMillis = new LinkedHashMap<>();
+    private final ExecutorService workers = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Stage splash;
+    private Label statusLabel;
+    private long splashShownMs;
+
+    StartupPipeline(Stage primaryStage) {
+        this.primaryStage = primaryStage;
+    }
+
+    /**
+     * Shows the splash and starts every stage. Call on the FX thread.
+     */
+    void start() {
+        showSplash();
+
+        CompletableFuture<Void> database;
+        if (Repositories.getBackend() == Repositories.Backend.MYSQL) {
+            database = stage("Loading database driver", "driver", () -> {
+                DatabaseConnection.loadDriver();
+                return null;
+            }).thenCompose(ignored -> stage("Connecting to the database", "connection", () -> {
+                DatabaseConnection.testConnection();
+                return null;
+            })).thenCompose(ignored -> stage("Checking the database schema", "schema", () -> {
+                SchemaInitializer.initialize();
+                return null;
+            }));
+        } else {
+            System.out.println("Using the embedded in-memory backend; data is not persisted.");
+            database = CompletableFuture.completedFuture(null);
+        }
+
+        // FXML nodes may be built off the FX thread as long as they are not yet in a showing window
+        CompletableFuture<Void> view = stage("Loading screens", "fxml", () -> {
+            Navigator.preload(Navigator.View.LOGIN);
+            return null;
+        });
+
+        CompletableFuture.allOf(database, view).whenComplete((ignored, error) -> {
+            workers.shutdown();
+            Platform.runLater(() -> {
+                if (error != null) {
+                    fail(error);
+                } else {
+                    showFirstWindow();
+                }
+            });
+        });
+    }
+
+    private void showSplash() {
+        Label title = new Label("Car Selling App");
+        title.setStyle("-fx-font-size: 22px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+        statusLabel = new Label("Starting...");
+        statusLabel.setStyle("-fx-text-fill: #7f8c8d;");
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setPrefSize(40, 40);
+
+        VBox content = new VBox(16, title, progress, statusLabel);
+        content.setAlignment(Pos.CENTER);
+        content.setStyle("-fx-background-color: white; -fx-padding: 32; -fx-border-color: #dfe6e9;");
+
+        splash = new Stage(StageStyle.UNDECORATED);
+        splash.setScene(new Scene(content, 360, 220));
+        splash.show();
+        splashShownMs = System.currentTimeMillis() - jvmStartMs;
+    }
+
+    /**
+     * Runs one stage on a worker thread, recording its duration under {@code name}.
+     */
+    private <T> CompletableFuture<T> stage(String status, String name, Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            Platform.runLater(() -> statusLabel.setText(status + "..."));
+            long start = System.nanoTime();
+            try {
+                return work.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(status + " failed: " + e.getMessage(), e);
+            } finally {
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                synchronized (stageMillis) {
+                    stageMillis.put(name, elapsedMs);
+                }
+            }
+        }, workers);
+    }
+
+    /**
+     * The stylesheet's URL, or null if it is missing. The scene parses it itself; a parse
+     * done here could not be handed over, so there is nothing to gain from doing it early.
+     */
+    private String stylesheetUrl() {
+        URL url = getClass().getResource(STYLESHEET);
+        if (url == null) {
+            System.out.println("Warning: Could not load CSS file");
+            return null;
+        }
+        return url.toExternalForm();
+    }
+
+    private void showFirstWindow() {
+        try {
+            // The scene made here is the one every later view is swapped into
+            Navigator.start(primaryStage, Navigator.View.LOGIN, stylesheetUrl());
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        primaryStage.show();
+        splash.close();
+        // Off the critical path: the next start opens on an up-to-date snapshot, and old
+        // tombstones go once the window is up
+        CarService carService = new CarService();
+        carService.refreshSnapshot();
+        carService.purgeTombstones();
+
+        long firstWindowMs = System.currentTimeMillis() - jvmStartMs;
+        report(firstWindowMs);
+        if (EXIT_AFTER_FIRST_WINDOW) {
+            Platform.exit();
+            System.exit(overBudget(firstWindowMs) ? 1 : 0);
+        }
+    }
+
+    private void fail(Throwable error) {
+        splash.close();
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        cause.printStackTrace();
+        System.err.println("Failed to start application: " + cause.getMessage());
+        Platform.exit();
+    }
+
+    private void report(long firstWindowMs) {
+        StringBuilder stages = new StringBuilder();
+        synchronized (stageMillis) {
+            for (Map.Entry<String, Long> stage : stageMillis.entrySet()) {
+                stages.append(stages.length() == 0 ? "" : ", ").append(stage.getKey()).append(' ')
+                        .append(stage.getValue()).append(" ms");
+            }
+        }
+        System.out.println("Startup: " + stages + "; splash after " + splashShownMs
+                + " ms, first window after " + firstWindowMs + " ms.");
+        if (overBudget(firstWindowMs)) {
+            System.err.println("Startup took " + firstWindowMs + " ms, over the startup.firstWindowBudgetMs budget of "
+                    + FIRST_WINDOW_BUDGET_MS + " ms.");
+        }
+
+        if (!METRICS_FILE.isEmpty()) {
+            // One line per run, so a script can compare runs over time
+            try (PrintWriter out = new PrintWriter(new FileWriter(METRICS_FILE, true))) {
+                StringBuilder line = new StringBuilder(LocalDateTime.now().toString());
+                synchronized (stageMillis) {
+                    for (Map.Entry<String, Long> stage : stageMillis.entrySet()) {
+                        line.append(' ').append(stage.getKey()).append("Ms=").append(stage.getValue());
+                    }
+                }
+                line.append(" splashMs=").append(splashShownMs).append(" firstWindowMs=").append(firstWindowMs);
+                out.println(line);
+            } catch (IOException e) {
+                System.err.println("Could not write startup metrics to " + METRICS_FILE + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean overBudget(long firstWindowMs) {
+        return FIRST_WINDOW_BUDGET_MS > 0 && firstWindowMs > FIRST_WINDOW_BUDGET_MS;
+    }
+}
@@ -0,0 +1,145 @@
+package com.carselling.benchmark;
+
+import com.carselling.models.Car;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Measures the retained heap of a {@code getAllCars()}-sized list of cars, per row. "Before"
+ * is the previous Car layout (its own String for every brand, model and color, a BigDecimal
+ * price and the full description); "after" is the current {@link Car}, read without its
+ * description the way list queries now map it.
+ *
+ * Strings are created fresh for every row, as the JDBC driver does. Run with a fixed heap
+ * and nothing else going on, e.g. {@code -Xms1g -Xmx1g}.
+ *
+ * Usage: CarFootprintBenchmark [rows]
+ */
+public class CarFootprintBenchmark {
+
+    private static final int DEFAULT_ROWS = 50_000;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final String[] BRANDS = {"Toyota", "Honda", "Ford", "BMW", "Audi", "Mazda", "Kia", "Tesla",
+            "Volkswagen", "Hyundai", "Nissan", "Volvo"};
+    private static final String[] COLORS = {"Black", "White", "Silver", "Red", "Blue", "Grey"};
+    private static final String DESCRIPTION = "One owner, full service history, new tires and brakes last year. "
+            + "Non-smoker, garage kept, no accidents. Comes with both keys, floor mats and the original manuals. "
+            + "Recent inspection passed; timing belt replaced at 90k. Test drives welcome by appointment.";
+
+    // Keeps the list being measured reachable until the heap has been sampled
+    private static List<?> retained;
+
+    // The descriptions are never read here
+    private static final IntFunction<String> NOT_READ = id -> {
+        throw new IllegalStateException("description read");
+    };
+
+    /**
+     * The Car fields as they were before dictionary encoding and lazy descriptions.
+     */
+    private static final class LegacyCar {
+        private int id;
+        private int userId;
+        private String brand;
+        private String model;
+        private int year;
+        private BigDecimal price;
+        private int mileage;
+        private String color;
+        private String description;
+        private String imagePath;
+        private LocalDateTime createdAt;
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        System.out.printf("Retained heap of %,d cars (median of %d rounds)%n", rows, MEASURED_ROUNDS);
+
+        long before = measure(() -> buildLegacy(rows));
+        long after = measure(() -> buildCurrent(rows));
+        System.out.printf("  before: %,10d bytes  (%,d bytes/row)%n", before, before / rows);
+        System.out.printf("  after:  %,10d bytes  (%,d bytes/row)%n", after, after / rows);
+        System.out.printf("  saved:  %.1f%%%n", 100.0 * (before - after) / before);
+    }
+
+    private static List<LegacyCar> buildLegacy(int rows) {
+        List<LegacyCar> cars = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            LegacyCar car = new LegacyCar();
+            car.id = i + 1;
+            car.userId = 1 + i % 500;
+            car.brand = fresh(BRANDS[i % BRANDS.length]);
+            car.model = fresh("Model " + (i % 300));
+            car.year = 2000 + i % 25;
+            car.price = BigDecimal.valueOf(500_000 + (i * 31L) % 6_000_000, 2);
+            car.mileage = (i * 37) % 250_000;
+            car.color = fresh(COLORS[i % COLORS.length]);
+            car.description = fresh(DESCRIPTION);
+            car.imagePath = fresh("images/car_" + i + ".jpg");
+            car.createdAt = start.plusSeconds(i);
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    private static List<Car> buildCurrent(int rows) {
+        List<Car> cars = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            Car car = new Car();
+            car.setId(i + 1);
+            car.setUserId(1 + i % 500);
+            car.setBrand(fresh(BRANDS[i % BRANDS.length]));
+            car.setModel(fresh("Model " + (i % 300)));
+            car.setYear(2000 + i % 25);
+            car.setPrice(BigDecimal.valueOf(500_000 + (i * 31L) % 6_000_000, 2));
+            car.setMileage((i * 37) % 250_000);
+            car.setColor(fresh(COLORS[i % COLORS.length]));
+            car.setDescriptionLoader(NOT_READ);
+            car.setImagePath(fresh("images/car_" + i + ".jpg"));
+            car.setCreatedAt(start.plusSeconds(i));
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    private static String fresh(String value) {
+        return new String(value.toCharArray());
+    }
+
+    private static long measure(Supplier<List<?>> build) {
+        // Fill the shared dictionary first so its few entries are not charged to one side
+        buildCurrent(1_000);
+
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long baseline = usedHeap();
+            retained = build.get();
+            samples[i] = usedHeap() - baseline;
+            retained = null;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
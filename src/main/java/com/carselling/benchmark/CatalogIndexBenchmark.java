@@ -0,0 +1,130 @@
+package com.carselling.benchmark;
+
+import com.carselling.database.CatalogIndex;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares filtering a list of {@link CarSummary} objects with {@link CarFilter#matches}
+ * (what the in-memory backend does) against {@link CatalogIndex} column scans, both on one
+ * core and split across all cores. Each query returns every match, newest first.
+ *
+ * Usage: CatalogIndexBenchmark [rows]
+ */
+public class CatalogIndexBenchmark {
+
+    private static final int DEFAULT_ROWS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static final String[] BRANDS = {"Toyota", "Honda", "Ford", "BMW", "Audi", "Mazda", "Kia", "Tesla",
+            "Volkswagen", "Hyundai", "Nissan", "Volvo"};
+    private static final String[] COLORS = {"Black", "White", "Silver", "Red", "Blue", "Grey"};
+
+    // Keeps the JIT from discarding the results
+    private static long checksum = 0;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+
+        List<CarSummary> cars = buildCars(rows);
+        CatalogIndex sequential = new CatalogIndex(false, Integer.MAX_VALUE);
+        CatalogIndex parallel = new CatalogIndex(true, 1);
+        long loadStart = System.nanoTime();
+        sequential.replaceAll(cars);
+        long loadNanos = System.nanoTime() - loadStart;
+        parallel.replaceAll(cars);
+
+        System.out.printf("Filtering %,d cars on %d cores (%d warm-up, %d measured rounds); index load %d ms%n",
+                rows, Runtime.getRuntime().availableProcessors(), WARMUP_ROUNDS, MEASURED_ROUNDS,
+                loadNanos / 1_000_000);
+
+        run("brand 'o' + year 2010-2018", cars, sequential, parallel,
+                new CarFilter("o", null, 2010, 2018, null, null));
+        run("price 15,000-25,000", cars, sequential, parallel,
+                new CarFilter(null, null, null, null, new BigDecimal("15000"), new BigDecimal("25000")));
+        run("model 'model 1' + price <= 20,000", cars, sequential, parallel,
+                new CarFilter(null, "model 1", null, null, null, new BigDecimal("20000")));
+        run("no filter", cars, sequential, parallel, CarFilter.none());
+        System.out.println("checksum " + checksum);
+    }
+
+    private static List<CarSummary> buildCars(int rows) {
+        List<CarSummary> cars = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            CarSummary car = new CarSummary();
+            car.setId(i + 1);
+            car.setUserId(1 + i % 500);
+            car.setBrand(BRANDS[i % BRANDS.length]);
+            car.setModel("Model " + (i % 60));
+            car.setYear(2000 + (i * 7) % 25);
+            car.setPrice(BigDecimal.valueOf(500_000 + (i * 31L) % 6_000_000, 2));
+            car.setMileage((i * 37) % 250_000);
+            car.setColor(COLORS[i % COLORS.length]);
+            car.setShortDescription("Benchmark listing number " + i);
+            car.setImagePath("images/bench_" + (i % 100) + ".jpg");
+            car.setCreatedAt(start.plusSeconds(i));
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    private static void run(String name, List<CarSummary> cars, CatalogIndex sequential, CatalogIndex parallel,
+                            CarFilter filter) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanObjects(cars, filter);
+            scanIndex(sequential, filter);
+            scanIndex(parallel, filter);
+        }
+
+        long[] objects = new long[MEASURED_ROUNDS];
+        long[] columns = new long[MEASURED_ROUNDS];
+        long[] split = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            objects[i] = scanObjects(cars, filter);
+            columns[i] = scanIndex(sequential, filter);
+            split[i] = scanIndex(parallel, filter);
+        }
+
+        double before = median(objects) / 1_000_000.0;
+        double after = median(columns) / 1_000_000.0;
+        double afterParallel = median(split) / 1_000_000.0;
+        System.out.printf("%s (%,d matches)%n", name, parallel.search(filter).length);
+        System.out.printf("  object list:       %8.2f ms%n", before);
+        System.out.printf("  columns:           %8.2f ms  (%.1fx)%n", after, before / after);
+        System.out.printf("  columns, parallel: %8.2f ms  (%.1fx)%n", afterParallel, before / afterParallel);
+    }
+
+    private static long scanObjects(List<CarSummary> cars, CarFilter filter) {
+        long start = System.nanoTime();
+        int[] ids = new int[cars.size()];
+        int found = 0;
+        for (int i = cars.size() - 1; i >= 0; i--) {
+            CarSummary car = cars.get(i);
+            if (filter.matches(car.getBrand(), car.getModel(), car.getYear(), car.getPrice())) {
+                ids[found++] = car.getId();
+            }
+        }
+        checksum += found;
+        return System.nanoTime() - start;
+    }
+
+    private static long scanIndex(CatalogIndex index, CarFilter filter) {
+        long start = System.nanoTime();
+        checksum += index.search(filter).length;
+        return System.nanoTime() - start;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
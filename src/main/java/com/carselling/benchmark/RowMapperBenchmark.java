@@ -0,0 +1,219 @@
+package com.carselling.benchmark;
+
+import com.carselling.database.CarRowMappers;
+import com.carselling.database.DatabaseConnection;
+import com.carselling.database.RowMapper;
+import com.carselling.models.Car;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Compares mapping cars by column label on every row (the old DAO code) with the compiled,
+ * index-resolved {@link CarRowMappers#CAR} plan.
+ *
+ * Run with {@code --mysql} to seed a temporary table in the configured database and map a real
+ * Connector/J result set; otherwise rows come from an in-memory {@link CachedRowSet}. Either
+ * way the rows are fully buffered before timing starts, so only mapping cost is measured.
+ *
+ * Usage: RowMapperBenchmark [--mysql] [rows]
+ */
+public class RowMapperBenchmark {
+
+    private static final int DEFAULT_ROWS = 100_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final String SQL = "SELECT * FROM bench_cars";
+
+    private static final String[] COLUMNS = {
+            "id", "user_id", "brand", "model", "year", "price", "mileage", "color",
+            "description", "image_path", "created_at"
+    };
+    private static final String[] BRANDS = {"Toyota", "Honda", "Ford", "BMW", "Audi", "Mazda", "Kia", "Tesla"};
+    private static final String[] COLORS = {"Black", "White", "Silver", "Red", "Blue", "Grey"};
+
+    // Keeps the JIT from discarding the mapped objects
+    private static long checksum = 0;
+
+    public static void main(String[] args) throws Exception {
+        boolean mysql = false;
+        int rows = DEFAULT_ROWS;
+        for (String arg : args) {
+            if (arg.equals("--mysql")) {
+                mysql = true;
+            } else {
+                rows = Integer.parseInt(arg);
+            }
+        }
+
+        if (mysql) {
+            runAgainstMySql(rows);
+        } else {
+            try (CachedRowSet rs = buildInMemoryRows(rows)) {
+                run("in-memory CachedRowSet", rs, rows);
+            }
+        }
+        System.out.println("checksum " + checksum);
+    }
+
+    private static void runAgainstMySql(int rows) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection("RowMapperBenchmark.seed");
+        if (conn == null) {
+            System.err.println("No database connection; check db_config.properties.");
+            return;
+        }
+
+        try (conn; Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TEMPORARY TABLE bench_cars LIKE cars");
+            seed(conn, rows);
+
+            try (Statement query = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+                 ResultSet rs = query.executeQuery(SQL)) {
+                // Map the driver's own result set, not the metrics wrapper around it
+                run("MySQL Connector/J", rs.unwrap(ResultSet.class), rows);
+            } finally {
+                stmt.execute("DROP TEMPORARY TABLE IF EXISTS bench_cars");
+                DatabaseConnection.closeConnection();
+            }
+        }
+    }
+
+    private static void seed(Connection conn, int rows) throws SQLException {
+        String insert = "INSERT INTO bench_cars (user_id, brand, model, year, price, mileage, color, description, image_path) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+            for (int i = 0; i < rows; i++) {
+                pstmt.setInt(1, 1 + i % 50);
+                pstmt.setString(2, BRANDS[i % BRANDS.length]);
+                pstmt.setString(3, "Model " + (i % 40));
+                pstmt.setInt(4, 2000 + i % 25);
+                pstmt.setBigDecimal(5, BigDecimal.valueOf(5_000 + (i % 900) * 50L, 0));
+                pstmt.setInt(6, (i * 37) % 250_000);
+                pstmt.setString(7, COLORS[i % COLORS.length]);
+                pstmt.setString(8, "Benchmark listing number " + i + ", one owner, full service history.");
+                pstmt.setString(9, "images/bench_" + (i % 100) + ".jpg");
+                pstmt.addBatch();
+                if (i % 1000 == 999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static CachedRowSet buildInMemoryRows(int rows) throws SQLException {
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(COLUMNS.length);
+        int[] types = {Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DECIMAL,
+                Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP};
+        for (int i = 0; i < COLUMNS.length; i++) {
+            meta.setColumnName(i + 1, COLUMNS[i]);
+            meta.setColumnLabel(i + 1, COLUMNS[i]);
+            meta.setColumnType(i + 1, types[i]);
+            meta.setNullable(i + 1, RowSetMetaDataImpl.columnNullable);
+        }
+
+        CachedRowSet rs = RowSetProvider.newFactory().createCachedRowSet();
+        rs.setMetaData(meta);
+        Timestamp created = Timestamp.valueOf("2024-01-01 00:00:00");
+        for (int i = 0; i < rows; i++) {
+            rs.moveToInsertRow();
+            rs.updateInt(1, i + 1);
+            rs.updateInt(2, 1 + i % 50);
+            rs.updateString(3, BRANDS[i % BRANDS.length]);
+            rs.updateString(4, "Model " + (i % 40));
+            rs.updateInt(5, 2000 + i % 25);
+            rs.updateBigDecimal(6, BigDecimal.valueOf(5_000 + (i % 900) * 50L, 0));
+            rs.updateInt(7, (i * 37) % 250_000);
+            rs.updateString(8, COLORS[i % COLORS.length]);
+            rs.updateString(9, "Benchmark listing number " + i + ", one owner, full service history.");
+            rs.updateString(10, "images/bench_" + (i % 100) + ".jpg");
+            rs.updateTimestamp(11, created);
+            rs.insertRow();
+        }
+        rs.moveToCurrentRow();
+        return rs;
+    }
+
+    private static void run(String source, ResultSet rs, int rows) throws SQLException {
+        System.out.printf("Mapping %,d rows from %s (%d warm-up, %d measured rounds)%n",
+                rows, source, WARMUP_ROUNDS, MEASURED_ROUNDS);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapByLabel(rs);
+            mapWithPlan(rs);
+        }
+
+        long[] byLabel = new long[MEASURED_ROUNDS];
+        long[] withPlan = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            byLabel[i] = mapByLabel(rs);
+            withPlan[i] = mapWithPlan(rs);
+        }
+
+        double before = rowsPerSecond(rows, median(byLabel));
+        double after = rowsPerSecond(rows, median(withPlan));
+        System.out.printf("  by label (before): %,12.0f rows/s%n", before);
+        System.out.printf("  compiled (after):  %,12.0f rows/s%n", after);
+        System.out.printf("  speed-up:          %12.2fx%n", after / before);
+    }
+
+    private static long mapByLabel(ResultSet rs) throws SQLException {
+        rs.beforeFirst();
+        long start = System.nanoTime();
+        while (rs.next()) {
+            Car car = new Car();
+            car.setId(rs.getInt("id"));
+            car.setUserId(rs.getInt("user_id"));
+            car.setBrand(rs.getString("brand"));
+            car.setModel(rs.getString("model"));
+            car.setYear(rs.getInt("year"));
+            car.setPrice(rs.getBigDecimal("price"));
+            car.setMileage(rs.getInt("mileage"));
+            car.setColor(rs.getString("color"));
+            car.setDescription(rs.getString("description"));
+            car.setImagePath(rs.getString("image_path"));
+
+            Timestamp timestamp = rs.getTimestamp("created_at");
+            if (timestamp != null) {
+                car.setCreatedAt(timestamp.toLocalDateTime());
+            }
+            checksum += car.getId();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long mapWithPlan(ResultSet rs) throws SQLException {
+        rs.beforeFirst();
+        long start = System.nanoTime();
+        RowMapper.Plan<Car> plan = CarRowMappers.CAR.planFor(SQL, rs);
+        while (rs.next()) {
+            checksum += plan.map(rs).getId();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows / (nanos / 1_000_000_000.0);
+    }
+}
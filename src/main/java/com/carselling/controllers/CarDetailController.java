@@ -1,27 +1,23 @@
 package com.carselling.controllers;
 
-import java.io.File;
-
-import com.carselling.database.CarDAO;
-import com.carselling.database.WatchlistDAO;
 import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+import com.carselling.services.CarService;
+import com.carselling.services.FxRequestScope;
+import com.carselling.services.WatchlistService;
 import com.carselling.utils.SessionManager;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.Region;
-import javafx.stage.Stage;
 
 public class CarDetailController {
 
+    private static final String CAR_REQUEST = "car";
+
     @FXML
     private ImageView carImageView;
     @FXML
@@ -52,17 +48,71 @@ public class CarDetailController {
     private Button backButton;
 
     private Car car;
-    private final CarDAO carDAO = new CarDAO();
-    private final WatchlistDAO watchlistDAO = new WatchlistDAO();
-
-    public void setCar(Car car) {
-        this.car = car;
-        loadCarDetails();
+    private final CarService carService = new CarService();
+    private final WatchlistService watchlistService = new WatchlistService();
+    private FxRequestScope requests;
+    private ImageBinding image;
+
+    /**
+     * Opens a listing from a grid card. The summary fills the header right away while the
+     * full record, including the description, loads in the background. The view is reused
+     * for every listing, so whatever the previous one left is cleared first.
+     */
+    public void setCar(CarSummary summary) {
+        this.car = null;
+        carTitleLabel.setText(summary.getBrand() + " " + summary.getModel() + " (" + summary.getYear() + ")");
+        carPriceLabel.setText("$" + String.format("%.2f", summary.getPrice()));
+        brandLabel.setText(summary.getBrand());
+        modelLabel.setText(summary.getModel());
+        yearLabel.setText(String.valueOf(summary.getYear()));
+        mileageLabel.setText(summary.getMileage() + " miles");
+        colorLabel.setText(summary.getColor() != null ? summary.getColor() : "N/A");
+        descriptionLabel.setText("Loading...");
+        // The photo does not need the full record, so start on it straight away
+        image.bind(summary.getImagePath());
+        setActionsVisible(false);
+        setActionsDisabled(false);
+
+        requests.submitLatest(CAR_REQUEST, carService.getCarById(summary.getId()),
+                loaded -> {
+                    if (loaded == null) {
+                        showAlert(Alert.AlertType.ERROR, "Error", "This listing is no longer available.");
+                        descriptionLabel.setText("This listing is no longer available.");
+                        return;
+                    }
+                    this.car = loaded;
+                    loadCarDetails();
+                },
+                error -> descriptionLabel.setText("Could not load this listing: " + error.getMessage()));
     }
 
     @FXML
     public void initialize() {
-        // Will be called after setCar
+        // setCar is called each time before the view is shown
+        requests = new FxRequestScope(backButton);
+        image = new ImageBinding(carImageView, carImageView.getFitWidth(), carImageView.getFitHeight(), true);
+    }
+
+    private void setActionsVisible(boolean visible) {
+        editButton.setVisible(visible);
+        deleteButton.setVisible(visible);
+        addToWatchlistButton.setVisible(visible);
+        removeFromWatchlistButton.setVisible(visible);
+    }
+
+    private void setActionsDisabled(boolean disabled) {
+        editButton.setDisable(disabled);
+        deleteButton.setDisable(disabled);
+        addToWatchlistButton.setDisable(disabled);
+        removeFromWatchlistButton.setDisable(disabled);
+    }
+
+    private void showAlert(Alert.AlertType type, String title, String message) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
     }
 
     private void loadCarDetails() {
@@ -82,14 +132,8 @@ public class CarDetailController {
         colorLabel.setText(car.getColor() != null ? car.getColor() : "N/A");
         descriptionLabel.setText(car.getDescription() != null ? car.getDescription() : "No description available.");
 
-        // Image
-        if (car.getImagePath() != null && !car.getImagePath().isEmpty()) {
-            File imageFile = new File("src/main/resources/" + car.getImagePath());
-            if (imageFile.exists()) {
-                Image image = new Image(imageFile.toURI().toString());
-                carImageView.setImage(image);
-            }
-        }
+        // Image, in case it changed since the grid was loaded
+        image.bind(car.getImagePath());
 
         // Update button visibility based on login status and ownership
         boolean isLoggedIn = SessionManager.isLoggedIn();
@@ -99,8 +143,8 @@ public class CarDetailController {
         deleteButton.setVisible(isOwner);
 
         if (isLoggedIn && !isOwner) {
-            // Check if car is in watchlist
-            boolean inWatchlist = watchlistDAO.isInWatchlist(SessionManager.getCurrentUserId(), car.getId());
+            // Check if car is in watchlist (answered from the session's preloaded id set)
+            boolean inWatchlist = SessionManager.isInWatchlist(car.getId());
             addToWatchlistButton.setVisible(!inWatchlist);
             removeFromWatchlistButton.setVisible(inWatchlist);
         } else {
@@ -111,50 +155,7 @@ public class CarDetailController {
 
     @FXML
     private void handleBack() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/home.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) backButton.getScene().getWindow();
-            
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 1000);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-            
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            stage.setScene(newScene);
-            stage.setTitle("Home - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-            
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.View.HOME);
     }
 
     @FXML
@@ -163,53 +164,9 @@ public class CarDetailController {
             return;
         }
 
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/car_management.fxml"));
-            Parent root = loader.load();
-            CarManagementController controller = loader.getController();
-            controller.setCarForEdit(car);
-
-            Stage stage = (Stage) editButton.getScene().getWindow();
-            
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 1000);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-            
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            stage.setScene(newScene);
-            stage.setTitle("Edit Car - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-            
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Car editing = car;
+        Navigator.<CarManagementController>show(Navigator.View.CAR_MANAGEMENT, "Edit Car - Car Selling App",
+                controller -> controller.setCarForEdit(editing));
     }
 
     @FXML
@@ -224,21 +181,21 @@ public class CarDetailController {
         alert.setContentText("This action cannot be undone.");
 
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            if (carDAO.deleteCar(car.getId(), SessionManager.getCurrentUserId())) {
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Success");
-                successAlert.setHeaderText(null);
-                successAlert.setContentText("Car deleted successfully.");
-                successAlert.showAndWait();
-
-                handleBack();
-            } else {
-                Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-                errorAlert.setTitle("Error");
-                errorAlert.setHeaderText(null);
-                errorAlert.setContentText("Failed to delete car.");
-                errorAlert.showAndWait();
-            }
+            setActionsDisabled(true);
+            requests.submit(carService.deleteCar(car.getId(), SessionManager.getCurrentUserId()),
+                    deleted -> {
+                        setActionsDisabled(false);
+                        if (deleted) {
+                            showAlert(Alert.AlertType.INFORMATION, "Success", "Car deleted successfully.");
+                            handleBack();
+                        } else {
+                            showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete car.");
+                        }
+                    },
+                    error -> {
+                        setActionsDisabled(false);
+                        showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete car.");
+                    });
         }
     }
 
@@ -248,21 +205,22 @@ public class CarDetailController {
             return;
         }
 
-        if (watchlistDAO.addToWatchlist(SessionManager.getCurrentUserId(), car.getId())) {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Success");
-            alert.setHeaderText(null);
-            alert.setContentText("Car added to watchlist.");
-            alert.showAndWait();
-
-            loadCarDetails(); // Refresh to update button visibility
-        } else {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText(null);
-            alert.setContentText("Failed to add car to watchlist. It may already be in your watchlist.");
-            alert.showAndWait();
-        }
+        setActionsDisabled(true);
+        requests.submit(watchlistService.addToWatchlist(SessionManager.getCurrentUserId(), car.getId()),
+                added -> {
+                    setActionsDisabled(false);
+                    if (added) {
+                        showAlert(Alert.AlertType.INFORMATION, "Success", "Car added to watchlist.");
+                        loadCarDetails(); // Refresh to update button visibility
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Error",
+                                "Failed to add car to watchlist. It may already be in your watchlist.");
+                    }
+                },
+                error -> {
+                    setActionsDisabled(false);
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to add car to watchlist.");
+                });
     }
 
     @FXML
@@ -271,20 +229,20 @@ public class CarDetailController {
             return;
         }
 
-        if (watchlistDAO.removeFromWatchlist(SessionManager.getCurrentUserId(), car.getId())) {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Success");
-            alert.setHeaderText(null);
-            alert.setContentText("Car removed from watchlist.");
-            alert.showAndWait();
-
-            loadCarDetails(); // Refresh to update button visibility
-        } else {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText(null);
-            alert.setContentText("Failed to remove car from watchlist.");
-            alert.showAndWait();
-        }
+        setActionsDisabled(true);
+        requests.submit(watchlistService.removeFromWatchlist(SessionManager.getCurrentUserId(), car.getId()),
+                removed -> {
+                    setActionsDisabled(false);
+                    if (removed) {
+                        showAlert(Alert.AlertType.INFORMATION, "Success", "Car removed from watchlist.");
+                        loadCarDetails(); // Refresh to update button visibility
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Error", "Failed to remove car from watchlist.");
+                    }
+                },
+                error -> {
+                    setActionsDisabled(false);
+                    showAlert(Alert.AlertType.ERROR, "Error", "Failed to remove car from watchlist.");
+                });
     }
 }
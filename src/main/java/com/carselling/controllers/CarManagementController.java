@@ -1,27 +1,30 @@
 package com.carselling.controllers;
 
 import java.io.File;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-import com.carselling.database.CarDAO;
 import com.carselling.models.Car;
-import com.carselling.utils.ImageHandler;
+import com.carselling.services.CarService;
+import com.carselling.services.FxRequestScope;
+import com.carselling.services.ImageLoader;
+import com.carselling.utils.CarValidator;
+import com.carselling.utils.InventoryImporter;
 import com.carselling.utils.SessionManager;
 
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
-import javafx.stage.Stage;
 
 public class CarManagementController {
 
@@ -55,16 +58,31 @@ public class CarManagementController {
     private Button browseImageButton;
     @FXML
     private Button backButton;
+    @FXML
+    private VBox importSection;
+    @FXML
+    private Button importButton;
+    @FXML
+    private Button cancelImportButton;
+    @FXML
+    private ProgressBar importProgressBar;
+    @FXML
+    private Label importStatusLabel;
 
-    private final CarDAO carDAO = new CarDAO();
+    private final CarService carService = new CarService();
     private Car carForEdit = null;
     private File selectedImageFile = null;
+    private Task<InventoryImporter.Progress> importTask = null;
+    private FxRequestScope requests;
+    private ImageLoader.Request previewRequest = null;
 
     @FXML
     public void initialize() {
-        // Check if user is logged in
+        requests = new FxRequestScope(saveButton);
+
+        // Check if user is logged in; go back once the navigation loading this view is done
         if (!SessionManager.isLoggedIn()) {
-            handleBack();
+            Platform.runLater(this::handleBack);
             return;
         }
     }
@@ -73,6 +91,8 @@ public class CarManagementController {
         this.carForEdit = car;
         if (car != null) {
             titleLabel.setText("Edit Car");
+            importSection.setVisible(false);
+            importSection.setManaged(false);
             loadCarData();
         }
     }
@@ -90,14 +110,22 @@ public class CarManagementController {
         colorField.setText(carForEdit.getColor() != null ? carForEdit.getColor() : "");
         descriptionField.setText(carForEdit.getDescription() != null ? carForEdit.getDescription() : "");
 
-        if (carForEdit.getImagePath() != null && !carForEdit.getImagePath().isEmpty()) {
-            File imageFile = new File("src/main/resources/" + carForEdit.getImagePath());
-            if (imageFile.exists()) {
-                Image image = new Image(imageFile.toURI().toString());
-                imagePreview.setImage(image);
-                imagePathLabel.setText(carForEdit.getImagePath());
-            }
+        showPreview(carForEdit.getImagePath(), carForEdit.getImagePath());
+    }
+
+    /**
+     * Decodes the preview in the background at the preview's size; a newer pick replaces a
+     * preview that is still loading.
+     */
+    private void showPreview(String imagePath, String label) {
+        if (previewRequest != null) {
+            previewRequest.cancel();
         }
+        previewRequest = ImageLoader.load(imagePath, imagePreview.getFitWidth(), imagePreview.getFitHeight(), true,
+                image -> {
+                    imagePreview.setImage(image);
+                    imagePathLabel.setText(label);
+                });
     }
 
     @FXML
@@ -111,121 +139,161 @@ public class CarManagementController {
         selectedImageFile = fileChooser.showOpenDialog(browseImageButton.getScene().getWindow());
 
         if (selectedImageFile != null) {
-            Image image = new Image(selectedImageFile.toURI().toString());
-            imagePreview.setImage(image);
-            imagePathLabel.setText(selectedImageFile.getName());
+            showPreview(selectedImageFile.getPath(), selectedImageFile.getName());
         }
     }
 
     @FXML
     private void handleSave() {
         // Validation
-        if (brandField.getText().trim().isEmpty()) {
-            showError("Brand is required.");
+        Car validated;
+        try {
+            validated = CarValidator.parse(
+                    SessionManager.getCurrentUserId(),
+                    brandField.getText(),
+                    modelField.getText(),
+                    yearField.getText(),
+                    priceField.getText(),
+                    mileageField.getText(),
+                    colorField.getText(),
+                    descriptionField.getText(),
+                    null
+            );
+        } catch (CarValidator.ValidationException e) {
+            showError(e.getMessage());
             return;
         }
 
-        if (modelField.getText().trim().isEmpty()) {
-            showError("Model is required.");
-            return;
+        // Copying the image and writing the row both happen off the FX thread
+        File imageFile = selectedImageFile;
+        Car editing = carForEdit;
+        String saveText = saveButton.getText();
+        saveButton.setDisable(true);
+        saveButton.setText("Saving...");
+        errorLabel.setVisible(false);
+
+        CompletableFuture<Boolean> save;
+        if (editing == null) {
+            save = carService.createCar(validated, imageFile);
+        } else {
+            editing.setBrand(validated.getBrand());
+            editing.setModel(validated.getModel());
+            editing.setYear(validated.getYear());
+            editing.setPrice(validated.getPrice());
+            editing.setMileage(validated.getMileage());
+            editing.setColor(validated.getColor());
+            editing.setDescription(validated.getDescription());
+            save = carService.updateCar(editing, imageFile);
         }
 
-        int year;
-        try {
-            year = Integer.parseInt(yearField.getText().trim());
-            if (year < 1900 || year > 2100) {
-                showError("Please enter a valid year.");
-                return;
-            }
-        } catch (NumberFormatException e) {
-            showError("Please enter a valid year.");
-            return;
-        }
+        requests.submit(save,
+                success -> {
+                    saveButton.setDisable(false);
+                    saveButton.setText(saveText);
+                    if (success) {
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Success");
+                        alert.setHeaderText(null);
+                        alert.setContentText(editing == null ? "Car added successfully!" : "Car updated successfully!");
+                        alert.showAndWait();
+
+                        handleBack();
+                    } else {
+                        showError("Failed to save car. Please try again.");
+                    }
+                },
+                error -> {
+                    saveButton.setDisable(false);
+                    saveButton.setText(saveText);
+                    // The image copy reports its own message
+                    showError(error instanceof IOException ? error.getMessage() : "Failed to save car. Please try again.");
+                });
+    }
 
-        BigDecimal price;
-        try {
-            price = new BigDecimal(priceField.getText().trim());
-            if (price.compareTo(BigDecimal.ZERO) <= 0) {
-                showError("Price must be greater than 0.");
-                return;
-            }
-        } catch (NumberFormatException e) {
-            showError("Please enter a valid price.");
+    @FXML
+    private void handleImport() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Select Inventory File");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Inventory Files", "*.csv", "*.json", "*.jsonl", "*.ndjson")
+        );
+
+        File file = fileChooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) {
             return;
         }
 
-        int mileage = 0;
-        if (!mileageField.getText().trim().isEmpty()) {
-            try {
-                mileage = Integer.parseInt(mileageField.getText().trim());
-                if (mileage < 0) {
-                    showError("Mileage cannot be negative.");
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                showError("Please enter a valid mileage.");
-                return;
+        int userId = SessionManager.getCurrentUserId();
+        InventoryImporter.Format format = InventoryImporter.Format.fromFileName(file.getName());
+
+        importTask = new Task<>() {
+            @Override
+            protected InventoryImporter.Progress call() throws Exception {
+                // Task coalesces these updates, so the FX thread sees at most one per pulse
+                return carService.importInventory(file, format, userId, progress -> {
+                    updateProgress(progress.getFractionDone(), 1.0);
+                    updateMessage(formatImportStatus(progress));
+                }, this::isCancelled);
             }
-        }
+        };
 
-        // Handle image
-        String imagePath = null;
-        if (selectedImageFile != null) {
-            imagePath = ImageHandler.saveImage(selectedImageFile);
-            if (imagePath == null) {
-                showError("Failed to save image. Please try again.");
-                return;
-            }
-        } else if (carForEdit != null && carForEdit.getImagePath() != null) {
-            // Keep existing image if editing and no new image selected
-            imagePath = carForEdit.getImagePath();
-        }
+        importProgressBar.progressProperty().bind(importTask.progressProperty());
+        importStatusLabel.textProperty().bind(importTask.messageProperty());
+        importProgressBar.setVisible(true);
+        importButton.setDisable(true);
+        cancelImportButton.setVisible(true);
 
-        // Create or update car
-        boolean success = false;
+        importTask.setOnSucceeded(e -> finishImport(importTask.getValue(), null));
+        importTask.setOnFailed(e -> finishImport(null, importTask.getException()));
+        importTask.setOnCancelled(e -> finishImport(null, null));
 
-        if (carForEdit == null) {
-            // Create new car
-            Car newCar = new Car(
-                    SessionManager.getCurrentUserId(),
-                    brandField.getText().trim(),
-                    modelField.getText().trim(),
-                    year,
-                    price,
-                    mileage,
-                    colorField.getText().trim(),
-                    descriptionField.getText().trim(),
-                    imagePath
-            );
-
-            success = carDAO.createCar(newCar);
-        } else {
-            // Update existing car
-            carForEdit.setBrand(brandField.getText().trim());
-            carForEdit.setModel(modelField.getText().trim());
-            carForEdit.setYear(year);
-            carForEdit.setPrice(price);
-            carForEdit.setMileage(mileage);
-            carForEdit.setColor(colorField.getText().trim());
-            carForEdit.setDescription(descriptionField.getText().trim());
-            if (imagePath != null) {
-                carForEdit.setImagePath(imagePath);
-            }
+        Thread thread = new Thread(importTask, "inventory-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-            success = carDAO.updateCar(carForEdit);
+    @FXML
+    private void handleCancelImport() {
+        if (importTask != null) {
+            importTask.cancel(false);
         }
+    }
 
-        if (success) {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Success");
-            alert.setHeaderText(null);
-            alert.setContentText(carForEdit == null ? "Car added successfully!" : "Car updated successfully!");
-            alert.showAndWait();
+    private void finishImport(InventoryImporter.Progress progress, Throwable error) {
+        importProgressBar.progressProperty().unbind();
+        importStatusLabel.textProperty().unbind();
+        importButton.setDisable(false);
+        cancelImportButton.setVisible(false);
+        importTask = null;
 
-            handleBack();
-        } else {
-            showError("Failed to save car. Please try again.");
+        if (error != null) {
+            importStatusLabel.setText("Import failed: " + error.getMessage());
+            return;
+        }
+        if (progress == null) {
+            importStatusLabel.setText("Import stopped. Rows already saved were kept.");
+            return;
         }
+
+        importProgressBar.setProgress(1.0);
+        StringBuilder status = new StringBuilder(formatImportStatus(progress));
+        List<String> errors = progress.getErrors();
+        for (int i = 0; i < Math.min(5, errors.size()); i++) {
+            status.append("\n").append(errors.get(i));
+        }
+        if (progress.getRowsRejected() > 5) {
+            status.append("\n...");
+        }
+        importStatusLabel.setText(status.toString());
+    }
+
+    private static String formatImportStatus(InventoryImporter.Progress progress) {
+        return String.format("%s%,d rows read, %,d imported, %,d rejected (%,.0f rows/s)",
+                progress.isFinished() ? "Done: " : "",
+                progress.getRowsRead(),
+                progress.getRowsInserted(),
+                progress.getRowsRejected(),
+                progress.getRowsPerSecond());
     }
 
     @FXML
@@ -235,50 +303,8 @@ public class CarManagementController {
 
     @FXML
     private void handleBack() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/home.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) backButton.getScene().getWindow();
-
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 1000);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-
-            stage.setScene(newScene);
-            stage.setTitle("Home - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        handleCancelImport();
+        Navigator.show(Navigator.View.HOME);
     }
 
     private void showError(String message) {
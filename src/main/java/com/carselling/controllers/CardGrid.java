@@ -0,0 +1,246 @@
+package com.carselling.controllers;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * A scrolling grid of fixed-size cards that only builds cards for the rows in view, plus
+ * {@link #OVERSCAN_ROWS} above and below. Cards scrolled out of range go back to a pool and
+ * are rebound to whatever scrolls in, so the node count follows the viewport size rather
+ * than the number of items. The column count follows the width, keeping the first visible
+ * item in view when it changes.
+ *
+ * Items are edited through {@link #getItems()}; cards in view are rebound on the next
+ * layout pass.
+ */
+final class CardGrid<T> extends Region {
+
+    /**
+     * A reusable card. {@link #update} is called with each item the card is bound to, and
+     * with null when it goes back to the pool.
+     */
+    interface Cell<T> {
+        Node getNode();
+
+        void update(T item);
+
+        /**
+         * Told on every layout whether the card is on screen or only in the overscan rows,
+         * so work for cards the user can see can go first.
+         */
+        default void setInViewport(boolean inViewport) {
+        }
+    }
+
+    private static final int OVERSCAN_ROWS = 1;
+
+    private final double cardWidth;
+    private final double cardHeight;
+    private final double gap;
+    private final Supplier<Cell<T>> cellFactory;
+
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final ReadOnlyDoubleWrapper contentHeight = new ReadOnlyDoubleWrapper(this, "contentHeight", 0);
+
+    // Cards in use by item index, and the item each one shows
+    private final Map<Integer, Cell<T>> activeCells = new HashMap<>();
+    private final Map<Cell<T>, T> boundItems = new HashMap<>();
+    private final ArrayDeque<Cell<T>> pool = new ArrayDeque<>();
+
+    private int columns = 0;
+    private boolean rebindAll = false;
+
+    CardGrid(double cardWidth, double cardHeight, double gap, Supplier<Cell<T>> cellFactory) {
+        this.cardWidth = cardWidth;
+        this.cardHeight = cardHeight;
+        this.gap = gap;
+        this.cellFactory = cellFactory;
+
+        setPadding(new Insets(gap));
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setVisible(false);
+        getChildren().add(scrollBar);
+
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+
+        items.addListener((ListChangeListener<T>) change -> requestLayout());
+        scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> requestLayout());
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            setScrollOffset(getScrollOffset() - e.getDeltaY());
+            e.consume();
+        });
+    }
+
+    ObservableList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Rebinds every card in view, for when something the cards show besides the items
+     * themselves has changed.
+     */
+    void refresh() {
+        rebindAll = true;
+        requestLayout();
+    }
+
+    DoubleProperty scrollOffsetProperty() {
+        return scrollBar.valueProperty();
+    }
+
+    double getScrollOffset() {
+        return scrollBar.getValue();
+    }
+
+    void setScrollOffset(double offset) {
+        scrollBar.setValue(clamp(offset, 0, scrollBar.getMax()));
+    }
+
+    ReadOnlyDoubleProperty contentHeightProperty() {
+        return contentHeight.getReadOnlyProperty();
+    }
+
+    double getContentHeight() {
+        return contentHeight.get();
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        Insets insets = getInsets();
+        return insets.getLeft() + cardWidth + insets.getRight();
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        Insets insets = getInsets();
+        return insets.getTop() + cardHeight + insets.getBottom();
+    }
+
+    @Override
+    protected double computeMinHeight(double width) {
+        return 0;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        Insets insets = getInsets();
+        double width = getWidth();
+        double height = getHeight();
+        double rowStride = cardHeight + gap;
+        int count = items.size();
+
+        // Leave room for the scroll bar only when the rows do not fit
+        double barWidth = scrollBar.prefWidth(-1);
+        int newColumns = columnsFor(width - insets.getLeft() - insets.getRight());
+        if (heightFor(count, newColumns, insets) > height) {
+            newColumns = columnsFor(width - insets.getLeft() - insets.getRight() - barWidth);
+        }
+        double totalHeight = heightFor(count, newColumns, insets);
+        boolean scrolling = totalHeight > height;
+
+        double offset = scrollBar.getValue();
+        if (columns != 0 && newColumns != columns) {
+            // Keep the row holding the first visible item at the top
+            int firstItem = (int) Math.max(0, (offset - insets.getTop()) / rowStride) * columns;
+            offset = (firstItem / newColumns) * rowStride;
+        }
+        columns = newColumns;
+        offset = clamp(offset, 0, Math.max(0, totalHeight - height));
+
+        scrollBar.setVisible(scrolling);
+        scrollBar.setMin(0);
+        scrollBar.setMax(Math.max(0, totalHeight - height));
+        scrollBar.setVisibleAmount(height);
+        scrollBar.setBlockIncrement(height);
+        scrollBar.setUnitIncrement(rowStride / 4);
+        scrollBar.setValue(offset);
+        scrollBar.resizeRelocate(width - barWidth, 0, barWidth, height);
+        contentHeight.set(totalHeight);
+
+        int firstRow = (int) Math.floor((offset - insets.getTop()) / rowStride) - OVERSCAN_ROWS;
+        int lastRow = (int) Math.floor((offset + height - insets.getTop()) / rowStride) + OVERSCAN_ROWS;
+        int from = Math.max(0, firstRow * columns);
+        int to = Math.min(count, (lastRow + 1) * columns);
+
+        // Return the cards that left the range first so the ones coming in can reuse them
+        for (Iterator<Map.Entry<Integer, Cell<T>>> it = activeCells.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Cell<T>> entry = it.next();
+            if (entry.getKey() < from || entry.getKey() >= to) {
+                release(entry.getValue());
+                it.remove();
+            }
+        }
+
+        for (int index = from; index < to; index++) {
+            Cell<T> cell = activeCells.get(index);
+            if (cell == null) {
+                cell = acquire();
+                activeCells.put(index, cell);
+            }
+            T item = items.get(index);
+            if (rebindAll || boundItems.get(cell) != item) {
+                cell.update(item);
+                boundItems.put(cell, item);
+            }
+
+            int row = index / columns;
+            int column = index % columns;
+            double y = insets.getTop() + row * rowStride - offset;
+            cell.getNode().resizeRelocate(insets.getLeft() + column * (cardWidth + gap), y, cardWidth, cardHeight);
+            cell.setInViewport(y + cardHeight > 0 && y < height);
+        }
+        rebindAll = false;
+    }
+
+    private int columnsFor(double availableWidth) {
+        return Math.max(1, (int) ((availableWidth + gap) / (cardWidth + gap)));
+    }
+
+    private double heightFor(int count, int columns, Insets insets) {
+        int rows = (count + columns - 1) / columns;
+        return insets.getTop() + Math.max(0, rows * (cardHeight + gap) - gap) + insets.getBottom();
+    }
+
+    private Cell<T> acquire() {
+        Cell<T> cell = pool.poll();
+        if (cell == null) {
+            cell = cellFactory.get();
+            // Below the scroll bar
+            getChildren().add(0, cell.getNode());
+        }
+        cell.getNode().setVisible(true);
+        return cell;
+    }
+
+    private void release(Cell<T> cell) {
+        cell.update(null);
+        boundItems.remove(cell);
+        cell.getNode().setVisible(false);
+        pool.push(cell);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
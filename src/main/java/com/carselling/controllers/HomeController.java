@@ -2,29 +2,47 @@ package com.carselling.controllers;
 
 import java.io.File;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
-import com.carselling.database.CarDAO;
+import com.carselling.database.TextSearchMode;
 import com.carselling.models.Car;
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarSummary;
+import com.carselling.models.CarFilter;
+import com.carselling.models.FacetCount;
+import com.carselling.models.Page;
+import com.carselling.services.CarService;
+import com.carselling.services.FxRequestScope;
+import com.carselling.utils.CatalogExporter;
+import com.carselling.utils.ConfigLoader;
+import com.carselling.utils.IntHashSet;
 import com.carselling.utils.SessionManager;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.FlowPane;
-import javafx.scene.layout.Region;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 
-public class HomeController {
+public class HomeController implements Navigator.Revisitable {
 
     @FXML
     private Button loginButton;
@@ -52,14 +70,116 @@ public class HomeController {
     @FXML
     private TextField maxPriceField;
     @FXML
+    private TextField searchKeywordsField;
+    @FXML
+    private CheckBox booleanModeCheckBox;
+    @FXML
     private Button searchButton;
-
-    private final CarDAO carDAO = new CarDAO();
+    @FXML
+    private Button exportButton;
+    @FXML
+    private Label exportStatusLabel;
+    @FXML
+    private FlowPane brandFacets;
+    @FXML
+    private FlowPane yearFacets;
+    @FXML
+    private FlowPane priceFacets;
+    @FXML
+    private FlowPane mileageFacets;
+    @FXML
+    private Label matchCountLabel;
+
+    private static final int PAGE_SIZE = ConfigLoader.getIntProperty("catalog.pageSize", 24);
+    private static final int FULL_TEXT_LIMIT = ConfigLoader.getIntProperty("catalog.fullTextLimit", 200);
+    // Fetch the next page once less than this many viewport heights are left below the fold
+    private static final double LOAD_MORE_VIEWPORTS = 1.0;
+
+    // Values shown per facet; the rest are still reachable by typing into the filter fields
+    private static final int MAX_FACET_VALUES = 8;
+
+    // All results requests share one key so a new search supersedes an older in-flight one
+    private static final String RESULTS_REQUEST = "results";
+    private static final String FACETS_REQUEST = "facets";
+    private static final String DELTA_REQUEST = "delta";
+
+    // How often the grid asks for listings other users changed; 0 turns polling off
+    private static final int POLL_INTERVAL_SECONDS = ConfigLoader.getIntProperty("catalog.pollIntervalSeconds", 15);
+
+    // Cards are a fixed size so the grid can work out which ones are in view without building them
+    private static final double CARD_WIDTH = 350;
+    private static final double CARD_HEIGHT = 470;
+    private static final double CARD_GAP = 20;
+    private static final double IMAGE_WIDTH = 350;
+    private static final double IMAGE_HEIGHT = 200;
+
+    private final CarService carService = new CarService();
+    private FxRequestScope requests;
+    private final Label loadingLabel = new Label("Loading cars...");
+    // Above the grid while background refreshes fail; the cards already shown stay
+    private final Label refreshErrorLabel = new Label();
+
+    private final CardGrid<CarSummary> grid = new CardGrid<>(CARD_WIDTH, CARD_HEIGHT, CARD_GAP, CarCard::new);
+    // Cars on the grid in display order; cards exist only for the ones in view
+    private final List<CarSummary> shownCars = grid.getItems();
+    private final IntHashSet shownIds = new IntHashSet();
+    private LocalDateTime watermark = null;
+    private Timeline poll = null;
+    private CarFilter currentFilter;
+    private String nextCursor;
+    private boolean hasMorePages = false;
+    private boolean loadingPage = false;
+    private Task<Long> exportTask = null;
 
     @FXML
     public void initialize() {
+        // The view stays loaded for the session, so pages still land while a listing is open
+        requests = new FxRequestScope();
+        loadingLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 14px; -fx-padding: 20;");
+        refreshErrorLabel.setStyle("-fx-text-fill: #e74c3c; -fx-font-size: 14px; -fx-padding: 10 20;");
+        refreshErrorLabel.setWrapText(true);
+        VBox.setVgrow(grid, Priority.ALWAYS);
         updateUI();
-        loadAllCars();
+
+        // Infinite scroll: load more when nearing the bottom, or while the content is shorter than the viewport
+        grid.scrollOffsetProperty().addListener((obs, oldValue, newValue) -> maybeLoadNextPage());
+        grid.contentHeightProperty().addListener((obs, oldValue, newValue) -> maybeLoadNextPage());
+        grid.heightProperty().addListener((obs, oldValue, newValue) -> maybeLoadNextPage());
+
+        // Poll for other users' changes only while this view is on screen
+        carsContainer.sceneProperty().addListener((obs, oldScene, newScene) -> onShowingChanged(newScene != null));
+
+        if (!restoreSnapshot()) {
+            loadAllCars();
+        }
+    }
+
+    /**
+     * Back from another view with the grid as it was left: catch up on the login state,
+     * watchlist badges and listings changed in the meantime.
+     */
+    @Override
+    public void onRevisit() {
+        updateUI();
+        // Rebinding the cards in view redraws their watchlist badges
+        grid.refresh();
+        refreshDelta();
+    }
+
+    private void onShowingChanged(boolean showing) {
+        if (showing) {
+            if (POLL_INTERVAL_SECONDS > 0 && poll == null) {
+                poll = new Timeline(new KeyFrame(Duration.seconds(POLL_INTERVAL_SECONDS), e -> refreshDelta()));
+                poll.setCycleCount(Animation.INDEFINITE);
+                poll.play();
+            }
+            return;
+        }
+
+        if (poll != null) {
+            poll.stop();
+            poll = null;
+        }
     }
 
     private void updateUI() {
@@ -74,50 +194,7 @@ public class HomeController {
 
     @FXML
     private void handleLogin() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/login.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) loginButton.getScene().getWindow();
-
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 800);
-            double currentHeight = Math.max(stage.getHeight(), 600);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-
-            stage.setScene(newScene);
-            stage.setTitle("Login - Car Selling App");
-            stage.setMinWidth(800);
-            stage.setMinHeight(600);
-
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.View.LOGIN);
     }
 
     @FXML
@@ -148,59 +225,31 @@ public class HomeController {
 
     @FXML
     private void handleWatchlist() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/watchlist.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) watchlistButton.getScene().getWindow();
-
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 1000);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-
-            stage.setScene(newScene);
-            stage.setTitle("Watchlist - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Failed to load watchlist page");
-            alert.setContentText("Error: " + e.getMessage());
-            alert.showAndWait();
-        }
+        Navigator.show(Navigator.View.WATCHLIST);
     }
 
     @FXML
     private void handleSearch() {
+        CarFilter filter = readFilterFields();
+
+        String keywords = searchKeywordsField.getText().trim();
+        if (!keywords.isEmpty()) {
+            TextSearchMode mode = booleanModeCheckBox.isSelected()
+                    ? TextSearchMode.BOOLEAN
+                    : TextSearchMode.NATURAL_LANGUAGE;
+            beginResults();
+            refreshFacets(filter);
+            requests.submitLatest(RESULTS_REQUEST,
+                    carService.searchCarsFullText(keywords, mode, filter, FULL_TEXT_LIMIT),
+                    this::showRankedResults,
+                    this::showLoadError);
+            return;
+        }
+
+        startCatalog(filter);
+    }
+
+    private CarFilter readFilterFields() {
         String brand = searchBrandField.getText().trim();
         String model = searchModelField.getText().trim();
 
@@ -229,233 +278,464 @@ public class HomeController {
         String brandParam = brand.isEmpty() ? null : brand;
         String modelParam = model.isEmpty() ? null : model;
 
-        List<Car> cars = carDAO.searchCars(brandParam, modelParam, minYear, maxYear, minPrice, maxPrice);
-        displayCars(cars);
+        return new CarFilter(brandParam, modelParam, minYear, maxYear, minPrice, maxPrice);
     }
 
-    private void loadAllCars() {
-        List<Car> cars = carDAO.getAllCars();
-        displayCars(cars);
-    }
+    @FXML
+    private void handleExport() {
+        if (exportTask != null) {
+            exportTask.cancel(false);
+            return;
+        }
 
-    private void loadMyCars() {
-        if (!SessionManager.isLoggedIn()) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Cars");
+        fileChooser.setInitialFileName("cars.csv");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl")
+        );
+        File file = fileChooser.showSaveDialog(exportButton.getScene().getWindow());
+        if (file == null) {
             return;
         }
 
-        List<Car> cars = carDAO.getCarsByUserId(SessionManager.getCurrentUserId());
-        displayCars(cars);
+        // Export whatever the filter fields describe; the whole catalog when they are empty
+        CarFilter filter = readFilterFields();
+        CatalogExporter exporter = new CatalogExporter(carService.getRepository());
+        CatalogExporter.Format format = CatalogExporter.Format.fromFileName(file.getName());
+
+        exportTask = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return exporter.export(file.toPath(), format, filter,
+                        rows -> updateMessage(String.format("Exporting... %,d rows written", rows)),
+                        this::isCancelled);
+            }
+        };
+
+        exportStatusLabel.textProperty().bind(exportTask.messageProperty());
+        exportButton.setText("Cancel Export");
+        exportTask.setOnSucceeded(e -> finishExport(String.format("Exported %,d cars to %s",
+                exportTask.getValue(), file.getName())));
+        exportTask.setOnFailed(e -> finishExport("Export failed: " + exportTask.getException().getMessage()));
+        exportTask.setOnCancelled(e -> finishExport("Export cancelled."));
+
+        Thread thread = new Thread(exportTask, "catalog-export");
+        thread.setDaemon(true);
+        thread.start();
     }
 
-    private void displayCars(List<Car> cars) {
-        carsContainer.getChildren().clear();
+    private void finishExport(String message) {
+        exportStatusLabel.textProperty().unbind();
+        exportStatusLabel.setText(message);
+        exportButton.setText("Export Results");
+        exportTask = null;
+    }
 
+    private void beginResults() {
+        // Relevance order and "My Cars" come back as one list, so there is nothing to page through
+        currentFilter = null;
+        hasMorePages = false;
+        nextCursor = null;
+
+        carsContainer.getChildren().setAll(loadingLabel);
+    }
+
+    private void showRankedResults(List<CarSummary> cars) {
+        resetGrid();
         if (cars.isEmpty()) {
-            Label emptyLabel = new Label("No cars found.");
-            emptyLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 16px;");
-            carsContainer.getChildren().add(emptyLabel);
+            showEmptyMessage();
             return;
         }
+        appendCars(cars);
+    }
+
+    private void loadAllCars() {
+        startCatalog(CarFilter.none());
+    }
+
+    private void startCatalog(CarFilter filter) {
+        currentFilter = filter;
+        nextCursor = null;
+        hasMorePages = true;
+        loadingPage = false;
+        resetGrid();
+        // Take the watermark before the first page so nothing changed in between is missed
+        watermark = null;
+        refreshDelta();
+        loadNextPage();
+        refreshFacets(filter);
+    }
+
+    /**
+     * Shows the first page from the local catalog snapshot without waiting for the database,
+     * then catches up from the snapshot's watermark like a restored catalog. Returns false if
+     * there is no snapshot to show.
+     */
+    private boolean restoreSnapshot() {
+        // Watermark before the page: if the snapshot moves on in between, the delta re-applies a little
+        LocalDateTime snapshotWatermark = carService.getSnapshotWatermark();
+        if (snapshotWatermark == null) {
+            return false;
+        }
+        Page<CarSummary> page = carService.getSnapshotPage(PAGE_SIZE);
+        if (page.getItems().isEmpty()) {
+            return false;
+        }
+
+        currentFilter = CarFilter.none();
+        nextCursor = page.getNextCursor();
+        hasMorePages = page.hasMore();
+        loadingPage = false;
+        watermark = snapshotWatermark;
+        resetGrid();
+        appendCars(page.getItems());
+        refreshDelta();
+        refreshFacets(currentFilter);
+        return true;
+    }
+
+    /**
+     * Asks for listings inserted, updated or deleted since the last refresh. With no
+     * watermark yet, this only fetches one.
+     */
+    private void refreshDelta() {
+        requests.submitLatest(DELTA_REQUEST,
+                carService.getChangesSince(watermark),
+                this::applyDelta,
+                this::showRefreshError);
+    }
+
+    private void showRefreshError(Throwable error) {
+        refreshErrorLabel.setText("Could not refresh listings: " + error.getMessage());
+        if (!carsContainer.getChildren().contains(refreshErrorLabel)) {
+            carsContainer.getChildren().add(0, refreshErrorLabel);
+        }
+    }
 
-        // Create a responsive FlowPane for grid layout
-        FlowPane gridPane = new FlowPane();
-        gridPane.setHgap(20);
-        gridPane.setVgap(20);
-        gridPane.setPadding(new Insets(20));
-        gridPane.setStyle("-fx-background-color: #f5f5f5;");
-
-        // Calculate card width based on container (responsive)
-        gridPane.prefWrapLengthProperty().bind(carsContainer.widthProperty().subtract(40));
-
-        // Display cars in a responsive grid layout
-        for (Car car : cars) {
-            VBox carCard = createCarCard(car);
-            carCard.setPrefWidth(350);
-            carCard.setMaxWidth(400);
-            carCard.setMinWidth(300);
-            gridPane.getChildren().add(carCard);
-        }
-
-        carsContainer.getChildren().add(gridPane);
-    }
-
-    private VBox createCarCard(Car car) {
-        VBox card = new VBox(10);
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 15; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);");
-        card.setPadding(new Insets(15));
-        card.setMaxWidth(400);
-        card.setMinWidth(300);
-
-        // Image
-        ImageView imageView = new ImageView();
-        imageView.setFitHeight(200);
-        imageView.setFitWidth(350);
-        imageView.setPreserveRatio(true);
-        imageView.setSmooth(true);
-
-        if (car.getImagePath() != null && !car.getImagePath().isEmpty()) {
-            File imageFile = new File("src/main/resources/" + car.getImagePath());
-            if (imageFile.exists()) {
-                Image image = new Image(imageFile.toURI().toString());
-                imageView.setImage(image);
-            } else {
-                // Placeholder image
-                imageView.setStyle("-fx-background-color: #ecf0f1;");
+    private void applyDelta(CarDelta delta) {
+        carsContainer.getChildren().remove(refreshErrorLabel);
+        if (delta.isReloadRequired()) {
+            if (currentFilter != null) {
+                startCatalog(currentFilter);
             }
-        } else {
-            imageView.setStyle("-fx-background-color: #ecf0f1;");
+            return;
+        }
+        watermark = delta.getWatermark();
+        if (delta.isEmpty()) {
+            return;
         }
 
-        // Car info
-        VBox infoBox = new VBox(10);
-        infoBox.setPadding(new Insets(10, 0, 0, 0));
+        for (int id : delta.getRemovedIds()) {
+            removeCard(id);
+        }
+        for (CarSummary car : delta.getChanged()) {
+            boolean matches = currentFilter == null
+                    || currentFilter.matches(car.getBrand(), car.getModel(), car.getYear(), car.getPrice());
+            boolean shown = shownIds.contains(car.getId());
+            if (shown && matches) {
+                shownCars.set(shownCars.indexOf(findShown(car.getId())), car);
+            } else if (shown) {
+                removeCard(car.getId());
+            } else if (matches && currentFilter != null) {
+                // New listings, or ones an edit brought into the filter; "My Cars" and ranked results are left alone
+                insertInCatalogOrder(car);
+            }
+        }
 
-        Label titleLabel = new Label(car.getBrand() + " " + car.getModel() + " (" + car.getYear() + ")");
-        titleLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
-        titleLabel.setWrapText(true);
+        if (currentFilter != null) {
+            if (shownCars.isEmpty() && !hasMorePages) {
+                showEmptyMessage();
+            }
+            refreshFacets(currentFilter);
+        }
+    }
 
-        Label priceLabel = new Label("$" + String.format("%.2f", car.getPrice()));
-        priceLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
+    private CarSummary findShown(int id) {
+        for (CarSummary shown : shownCars) {
+            if (shown.getId() == id) {
+                return shown;
+            }
+        }
+        return null;
+    }
 
-        Label detailsLabel = new Label("Mileage: " + car.getMileage() + " miles | Color: " + (car.getColor() != null ? car.getColor() : "N/A"));
-        detailsLabel.setStyle("-fx-text-fill: #7f8c8d;");
-        detailsLabel.setWrapText(true);
+    private void removeCard(int id) {
+        if (shownIds.remove(id)) {
+            shownCars.remove(findShown(id));
+        }
+    }
 
-        if (car.getDescription() != null && !car.getDescription().isEmpty()) {
-            String shortDesc = car.getDescription().length() > 100
-                    ? car.getDescription().substring(0, 100) + "..."
-                    : car.getDescription();
-            Label descLabel = new Label(shortDesc);
-            descLabel.setWrapText(true);
-            descLabel.setStyle("-fx-text-fill: #34495e;");
-            infoBox.getChildren().addAll(titleLabel, priceLabel, detailsLabel, descLabel);
-        } else {
-            infoBox.getChildren().addAll(titleLabel, priceLabel, detailsLabel);
+    /**
+     * Places a car by (created_at, id) descending, like the catalog query. A car older than
+     * everything loaded so far is left for a later page to bring in.
+     */
+    private void insertInCatalogOrder(CarSummary car) {
+        int index = 0;
+        while (index < shownCars.size() && isNewer(shownCars.get(index), car)) {
+            index++;
+        }
+        if (index == shownCars.size() && hasMorePages) {
+            return;
         }
 
-        // View button
-        Button viewButton = new Button("View Details");
-        viewButton.setMaxWidth(Double.MAX_VALUE);
-        viewButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-weight: bold; -fx-cursor: hand;");
-        viewButton.setOnAction(e -> viewCarDetails(car));
+        if (!carsContainer.getChildren().contains(grid)) {
+            resetGrid();
+        }
+        shownCars.add(index, car);
+        shownIds.add(car.getId());
+    }
 
-        infoBox.getChildren().add(viewButton);
-        card.getChildren().addAll(imageView, infoBox);
-        card.setOnMouseClicked(e -> viewCarDetails(car));
-        card.setStyle(card.getStyle() + " -fx-cursor: hand;");
+    private static boolean isNewer(CarSummary a, CarSummary b) {
+        int byCreated = a.getCreatedAt().compareTo(b.getCreatedAt());
+        return byCreated > 0 || (byCreated == 0 && a.getId() > b.getId());
+    }
 
-        return card;
+    private void refreshFacets(CarFilter filter) {
+        requests.submitLatest(FACETS_REQUEST,
+                carService.getFacets(filter),
+                this::showFacets,
+                error -> showFacets(CarFacets.empty()));
     }
 
-    private void viewCarDetails(Car car) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/car_detail.fxml"));
-            Parent root = loader.load();
-            CarDetailController controller = loader.getController();
-            controller.setCar(car);
-
-            Stage stage = (Stage) carsContainer.getScene().getWindow();
-
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 900);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
+    private void showFacets(CarFacets facets) {
+        matchCountLabel.setText(String.format("%,d cars match the filters", facets.getTotal()));
 
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
+        brandFacets.getChildren().clear();
+        for (FacetCount brand : top(facets.getBrands())) {
+            brandFacets.getChildren().add(facetLink(brand, () -> searchBrandField.setText(brand.getLabel())));
+        }
 
-            stage.setScene(newScene);
-            stage.setTitle("Car Details - Car Selling App");
-            stage.setMinWidth(900);
-            stage.setMinHeight(700);
+        yearFacets.getChildren().clear();
+        for (FacetCount year : top(facets.getYears())) {
+            yearFacets.getChildren().add(facetLink(year, () -> {
+                minYearField.setText(String.valueOf(year.getLower()));
+                maxYearField.setText(String.valueOf(year.getLower()));
+            }));
+        }
 
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
+        priceFacets.getChildren().clear();
+        for (FacetCount band : facets.getPriceBands()) {
+            priceFacets.getChildren().add(facetLink(band, () -> {
+                minPriceField.setText(band.getLower() == null ? "" : String.valueOf(band.getLower()));
+                // Bands exclude their upper edge while the max price filter is inclusive
+                maxPriceField.setText(band.getUpper() == null ? ""
+                        : BigDecimal.valueOf(band.getUpper()).subtract(new BigDecimal("0.01")).toPlainString());
+            }));
+        }
 
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Failed to load car details page");
-            alert.setContentText("Error: " + e.getMessage());
-            alert.showAndWait();
+        // There is no mileage filter, so these are counts only
+        mileageFacets.getChildren().clear();
+        for (FacetCount band : facets.getMileageBands()) {
+            Label label = new Label(band.toString());
+            label.setStyle("-fx-text-fill: #34495e;");
+            mileageFacets.getChildren().add(label);
         }
     }
 
-    private void navigateToCarManagement(Car car) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/car_management.fxml"));
-            Parent root = loader.load();
-            CarManagementController controller = loader.getController();
-            if (car != null) {
-                controller.setCarForEdit(car);
-            }
+    private static List<FacetCount> top(List<FacetCount> counts) {
+        return counts.size() > MAX_FACET_VALUES ? counts.subList(0, MAX_FACET_VALUES) : counts;
+    }
 
-            Stage stage = (Stage) addCarButton.getScene().getWindow();
+    private Hyperlink facetLink(FacetCount facet, Runnable applyToFields) {
+        Hyperlink link = new Hyperlink(facet.toString());
+        link.setOnAction(e -> {
+            applyToFields.run();
+            handleSearch();
+        });
+        return link;
+    }
 
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 1000);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
+    private void maybeLoadNextPage() {
+        if (!hasMorePages || loadingPage) {
+            return;
+        }
 
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
+        double viewportHeight = grid.getHeight();
+        double hiddenBelow = grid.getContentHeight() - grid.getScrollOffset() - viewportHeight;
 
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        if (hiddenBelow <= viewportHeight * LOAD_MORE_VIEWPORTS) {
+            // Defer so we never mutate the grid in the middle of a layout pass
+            Platform.runLater(this::loadNextPage);
+        }
+    }
+
+    private void loadNextPage() {
+        if (!hasMorePages || loadingPage || currentFilter == null) {
+            return;
+        }
+
+        loadingPage = true;
+        boolean firstPage = nextCursor == null;
+        if (!carsContainer.getChildren().contains(loadingLabel)) {
+            // Above the empty grid for the first page, below the cards for the rest
+            carsContainer.getChildren().add(firstPage ? 0 : carsContainer.getChildren().size(), loadingLabel);
+        }
+
+        requests.submitLatest(RESULTS_REQUEST,
+                carService.searchCarsPage(currentFilter, nextCursor, PAGE_SIZE),
+                page -> {
+                    loadingPage = false;
+                    carsContainer.getChildren().remove(loadingLabel);
+                    nextCursor = page.getNextCursor();
+                    hasMorePages = page.hasMore();
+
+                    if (firstPage && page.getItems().isEmpty()) {
+                        showEmptyMessage();
+                        return;
+                    }
+                    appendCars(page.getItems());
+                },
+                error -> {
+                    loadingPage = false;
+                    hasMorePages = false;
+                    showLoadError(error);
+                });
+    }
+
+    private void showLoadError(Throwable error) {
+        carsContainer.getChildren().remove(loadingLabel);
+        Label errorLabel = new Label("Could not load cars: " + error.getMessage());
+        errorLabel.setStyle("-fx-text-fill: #e74c3c; -fx-font-size: 14px; -fx-padding: 20;");
+        errorLabel.setWrapText(true);
+        carsContainer.getChildren().add(errorLabel);
+    }
+
+    private void loadMyCars() {
+        if (!SessionManager.isLoggedIn()) {
+            return;
+        }
+
+        // "My Cars" is bounded by a single seller's listings, so it is loaded in one go
+        beginResults();
+        requests.submitLatest(RESULTS_REQUEST,
+                carService.getCarsByUserId(SessionManager.getCurrentUserId()),
+                this::showRankedResults,
+                this::showLoadError);
+    }
+
+    private void resetGrid() {
+        carsContainer.getChildren().setAll(grid);
+        shownCars.clear();
+        shownIds.clear();
+        grid.setScrollOffset(0);
+    }
+
+    private void showEmptyMessage() {
+        carsContainer.getChildren().clear();
+        shownCars.clear();
+        shownIds.clear();
+        Label emptyLabel = new Label("No cars found.");
+        emptyLabel.setStyle("-fx-text-fill: #7f8c8d; -fx-font-size: 16px; -fx-padding: 20;");
+        carsContainer.getChildren().add(emptyLabel);
+    }
+
+    private void appendCars(List<CarSummary> cars) {
+        List<CarSummary> added = new ArrayList<>(cars.size());
+        for (CarSummary car : cars) {
+            // A delta may already have placed it
+            if (shownIds.add(car.getId())) {
+                added.add(car);
             }
+        }
+        // One change, so the grid lays out once per page
+        shownCars.addAll(added);
+    }
 
-            stage.setScene(newScene);
-            stage.setTitle(car == null ? "Add Car - Car Selling App" : "Edit Car - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
+    /**
+     * A listing card. The grid builds only as many as fit on screen and rebinds them to
+     * other cars as the user scrolls.
+     */
+    private final class CarCard implements CardGrid.Cell<CarSummary> {
+        private final VBox card = new VBox(10);
+        private final ImageView imageView = new ImageView();
+        private final Label titleLabel = new Label();
+        private final Label priceLabel = new Label();
+        private final Label detailsLabel = new Label();
+        private final Label descLabel = new Label();
+        private final Label watchedLabel = new Label("★ In your watchlist");
+        private CarSummary car;
+        private final ImageBinding image = new ImageBinding(imageView, IMAGE_WIDTH, IMAGE_HEIGHT, false);
+
+        private CarCard() {
+            card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 15; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2); -fx-cursor: hand;");
+            card.setPadding(new Insets(15));
+
+            // Image
+            imageView.setFitHeight(IMAGE_HEIGHT);
+            imageView.setFitWidth(IMAGE_WIDTH);
+            imageView.setPreserveRatio(true);
+            imageView.setSmooth(true);
+
+            // Car info
+            VBox infoBox = new VBox(10);
+            infoBox.setPadding(new Insets(10, 0, 0, 0));
+
+            titleLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+            titleLabel.setWrapText(true);
+            priceLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
+            detailsLabel.setStyle("-fx-text-fill: #7f8c8d;");
+            detailsLabel.setWrapText(true);
+            descLabel.setWrapText(true);
+            descLabel.setStyle("-fx-text-fill: #34495e;");
+            watchedLabel.setStyle("-fx-text-fill: #f39c12; -fx-font-weight: bold;");
+            // Hidden labels give up their space
+            descLabel.managedProperty().bind(descLabel.visibleProperty());
+            watchedLabel.managedProperty().bind(watchedLabel.visibleProperty());
+
+            // View button
+            Button viewButton = new Button("View Details");
+            viewButton.setMaxWidth(Double.MAX_VALUE);
+            viewButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-weight: bold; -fx-cursor: hand;");
+            viewButton.setOnAction(e -> viewCarDetails(car));
+
+            infoBox.getChildren().addAll(titleLabel, priceLabel, detailsLabel, descLabel, watchedLabel, viewButton);
+            card.getChildren().addAll(imageView, infoBox);
+            card.setOnMouseClicked(e -> viewCarDetails(car));
+        }
 
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
+        @Override
+        public Node getNode() {
+            return card;
+        }
 
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
+        @Override
+        public void update(CarSummary car) {
+            this.car = car;
+            if (car == null) {
+                image.unbind();
+                return;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Failed to load car management page");
-            alert.setContentText("Error: " + e.getMessage());
-            alert.showAndWait();
+            image.bind(car.getImagePath());
+
+            titleLabel.setText(car.getBrand() + " " + car.getModel() + " (" + car.getYear() + ")");
+            priceLabel.setText("$" + String.format("%.2f", car.getPrice()));
+            detailsLabel.setText("Mileage: " + car.getMileage() + " miles | Color: " + (car.getColor() != null ? car.getColor() : "N/A"));
+
+            boolean hasDescription = car.getShortDescription() != null && !car.getShortDescription().isEmpty();
+            descLabel.setText(hasDescription ? car.getShortDescription() : "");
+            descLabel.setVisible(hasDescription);
+            watchedLabel.setVisible(SessionManager.isInWatchlist(car.getId()));
         }
+
+        @Override
+        public void setInViewport(boolean inViewport) {
+            image.setInViewport(inViewport);
+        }
+    }
+
+    private void viewCarDetails(CarSummary car) {
+        Navigator.<CarDetailController>show(Navigator.View.CAR_DETAIL, null, controller -> controller.setCar(car));
+    }
+
+    private void navigateToCarManagement(Car car) {
+        Navigator.<CarManagementController>show(Navigator.View.CAR_MANAGEMENT,
+                car == null ? null : "Edit Car - Car Selling App",
+                controller -> {
+                    if (car != null) {
+                        controller.setCarForEdit(car);
+                    }
+                });
     }
 }
@@ -0,0 +1,66 @@
+package com.carselling.controllers;
+
+import java.util.Objects;
+
+import com.carselling.services.ImageLoader;
+
+import javafx.scene.image.ImageView;
+
+/**
+ * Keeps an {@link ImageView} showing one listing photo through {@link ImageLoader}: a
+ * placeholder until the photo is decoded at the view's size, the pending load cancelled when
+ * the view moves on to another photo, and the load's priority following whether the view is
+ * on screen. Used from the JavaFX Application Thread only.
+ */
+final class ImageBinding {
+
+    private final ImageView imageView;
+    private final double width;
+    private final double height;
+    private String imagePath;
+    private ImageLoader.Request request;
+    private boolean inViewport;
+
+    ImageBinding(ImageView imageView, double width, double height, boolean inViewport) {
+        this.imageView = imageView;
+        this.width = width;
+        this.height = height;
+        this.inViewport = inViewport;
+    }
+
+    /**
+     * Shows the photo at {@code imagePath}. Binding again to the photo already shown or
+     * loading keeps it, so rebinding a card for other reasons does not flash the placeholder.
+     */
+    void bind(String imagePath) {
+        if (request != null && Objects.equals(imagePath, this.imagePath)) {
+            return;
+        }
+        show(imagePath);
+    }
+
+    /**
+     * Drops the photo, cancelling its load if it is still pending.
+     */
+    void unbind() {
+        show(null);
+    }
+
+    void setInViewport(boolean inViewport) {
+        this.inViewport = inViewport;
+        if (request != null) {
+            request.setInViewport(inViewport);
+        }
+    }
+
+    private void show(String newImagePath) {
+        // The view moved on to another photo; the old one is not wanted any more
+        if (request != null) {
+            request.cancel();
+        }
+        imagePath = newImagePath;
+        imageView.setImage(ImageLoader.placeholder(width, height));
+        request = newImagePath == null ? null
+                : ImageLoader.load(newImagePath, width, height, inViewport, imageView::setImage);
+    }
+}
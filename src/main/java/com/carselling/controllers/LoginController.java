@@ -1,24 +1,17 @@
 package com.carselling.controllers;
 
-import java.io.IOException;
-
-import com.carselling.database.UserDAO;
 import com.carselling.models.User;
-import com.carselling.utils.SessionManager;
+import com.carselling.services.FxRequestScope;
+import com.carselling.services.UserService;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.Region;
-import javafx.stage.Stage;
 
-public class LoginController {
+public class LoginController implements Navigator.Revisitable {
 
     @FXML
     private TextField usernameField;
@@ -47,7 +40,8 @@ public class LoginController {
     @FXML
     private Label regErrorLabel;
 
-    private final UserDAO userDAO = new UserDAO();
+    private final UserService userService = new UserService();
+    private FxRequestScope requests;
     private boolean isRegisterMode = false;
 
     @FXML
@@ -56,6 +50,19 @@ public class LoginController {
         if (regUsernameField != null && regUsernameField.isVisible()) {
             isRegisterMode = true;
         }
+        // login.fxml and register.fxml share this controller; scope requests to whichever form is loaded
+        requests = new FxRequestScope(loginButton != null ? loginButton : registerSubmitButton);
+    }
+
+    /**
+     * The login form is kept between visits; start it over without the last password.
+     */
+    @Override
+    public void onRevisit() {
+        if (passwordField != null) {
+            passwordField.clear();
+            errorLabel.setVisible(false);
+        }
     }
 
     @FXML
@@ -68,72 +75,32 @@ public class LoginController {
             return;
         }
 
-        User user = userDAO.authenticateUser(username, password);
-
-        if (user != null) {
-            SessionManager.setCurrentUser(user);
-            navigateToHome();
-        } else {
-            showError("Invalid username/email or password.");
-        }
+        String loginText = loginButton.getText();
+        loginButton.setDisable(true);
+        loginButton.setText("Signing in...");
+        errorLabel.setVisible(false);
+
+        // The session, including the watchlist preload, is set up before the future completes
+        requests.submit(userService.login(username, password),
+                user -> {
+                    loginButton.setDisable(false);
+                    loginButton.setText(loginText);
+                    if (user != null) {
+                        navigateToHome();
+                    } else {
+                        showError("Invalid username/email or password.");
+                    }
+                },
+                error -> {
+                    loginButton.setDisable(false);
+                    loginButton.setText(loginText);
+                    showError("Login failed. Please try again.");
+                });
     }
 
     @FXML
     private void handleRegister() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/register.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) registerButton.getScene().getWindow();
-            
-            // Preserve window size and position
-            double currentWidth = stage.getWidth();
-            double currentHeight = stage.getHeight();
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-            
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            stage.setScene(newScene);
-            stage.setTitle("Register - Car Selling App");
-            
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Failed to load registration page");
-            alert.setContentText("Error: " + e.getMessage());
-            alert.showAndWait();
-        } catch (Exception e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText("Unexpected error");
-            alert.setContentText("Error: " + e.getMessage());
-            alert.showAndWait();
-        }
+        Navigator.show(Navigator.View.REGISTER);
     }
 
     @FXML
@@ -159,122 +126,48 @@ public class LoginController {
             return;
         }
 
-        if (userDAO.usernameExists(username)) {
-            showRegError("Username already exists.");
-            return;
-        }
-
-        if (userDAO.emailExists(email)) {
-            showRegError("Email already exists.");
-            return;
-        }
-
-        // Create user
+        // Uniqueness checks and the insert run together in the background
         User newUser = new User(username, email, password);
-        if (userDAO.createUser(newUser)) {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Registration Successful");
-            alert.setHeaderText(null);
-            alert.setContentText("Account created successfully! Please login.");
-            alert.showAndWait();
-
-            handleBackToLogin();
-        } else {
-            showRegError("Registration failed. Please try again.");
-        }
+        registerSubmitButton.setDisable(true);
+        regErrorLabel.setVisible(false);
+
+        requests.submit(userService.register(newUser),
+                result -> {
+                    registerSubmitButton.setDisable(false);
+                    switch (result) {
+                        case CREATED:
+                            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                            alert.setTitle("Registration Successful");
+                            alert.setHeaderText(null);
+                            alert.setContentText("Account created successfully! Please login.");
+                            alert.showAndWait();
+
+                            handleBackToLogin();
+                            break;
+                        case USERNAME_TAKEN:
+                            showRegError("Username already exists.");
+                            break;
+                        case EMAIL_TAKEN:
+                            showRegError("Email already exists.");
+                            break;
+                        default:
+                            showRegError("Registration failed. Please try again.");
+                            break;
+                    }
+                },
+                error -> {
+                    registerSubmitButton.setDisable(false);
+                    showRegError("Registration failed. Please try again.");
+                });
     }
 
     @FXML
     private void handleBackToLogin() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/login.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) backToLoginButton.getScene().getWindow();
-            
-            // Preserve window size and position
-            double currentWidth = stage.getWidth();
-            double currentHeight = stage.getHeight();
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-            
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            stage.setScene(newScene);
-            stage.setTitle("Login - Car Selling App");
-            
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.View.LOGIN);
     }
 
     private void navigateToHome() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/home.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) loginButton.getScene().getWindow();
-            
-            // Preserve window size and position, but ensure minimum size
-            double currentWidth = Math.max(stage.getWidth(), 1000);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-            
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            stage.setScene(newScene);
-            stage.setTitle("Home - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-            
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.View.HOME);
     }
 
     private void showError(String message) {
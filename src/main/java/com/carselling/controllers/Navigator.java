@@ -0,0 +1,167 @@
+package com.carselling.controllers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.stage.Stage;
+
+/**
+ * Switches the application window between views. The window has one Scene for the whole
+ * session, created by {@link #start}; navigating swaps its root, so the window keeps its
+ * size and position and the stylesheet is parsed once instead of for every new Scene.
+ *
+ * Cached views are loaded once and then reused, controller and all: the home grid keeps its
+ * results, filters and scroll position while a listing is open, so going back is a root swap
+ * plus a change-feed refresh rather than a reload. Form views are loaded fresh each time so
+ * they always open empty.
+ *
+ * Must only be used from the JavaFX Application Thread, except {@link #preload}.
+ */
+public final class Navigator {
+
+    public enum View {
+        LOGIN("login.fxml", "Login - Car Selling App", 800, 600, true),
+        REGISTER("register.fxml", "Register - Car Selling App", 800, 600, false),
+        HOME("home.fxml", "Home - Car Selling App", 1000, 700, true),
+        WATCHLIST("watchlist.fxml", "Watchlist - Car Selling App", 1000, 700, true),
+        CAR_DETAIL("car_detail.fxml", "Car Details - Car Selling App", 900, 700, true),
+        CAR_MANAGEMENT("car_management.fxml", "Add Car - Car Selling App", 1000, 700, false);
+
+        private final String fxml;
+        private final String title;
+        private final double minWidth;
+        private final double minHeight;
+        private final boolean cached;
+
+        View(String fxml, String title, double minWidth, double minHeight, boolean cached) {
+            this.fxml = "/com/carselling/fxml/" + fxml;
+            this.title = title;
+            this.minWidth = minWidth;
+            this.minHeight = minHeight;
+            this.cached = cached;
+        }
+    }
+
+    /**
+     * Implemented by controllers of cached views that have to catch up when they are shown
+     * again, e.g. with a login or watchlist change made on another view.
+     */
+    public interface Revisitable {
+        void onRevisit();
+    }
+
+    private static final Map<View, LoadedView> CACHE = new ConcurrentHashMap<>();
+
+    private static Stage stage;
+    private static Scene scene;
+
+    private Navigator() {
+    }
+
+    /**
+     * Loads a cached view ahead of time so showing it later is only a root swap. Can be
+     * called from any thread before the view is first shown.
+     */
+    public static void preload(View view) throws IOException {
+        if (view.cached && !CACHE.containsKey(view)) {
+            CACHE.put(view, load(view));
+        }
+    }
+
+    /**
+     * Puts the window up on its first view. {@code stylesheet} may be null.
+     */
+    public static void start(Stage primaryStage, View first, String stylesheet) throws IOException {
+        LoadedView loaded = obtain(first);
+        stage = primaryStage;
+        scene = new Scene(loaded.root, first.minWidth, first.minHeight);
+        if (stylesheet != null) {
+            scene.getStylesheets().add(stylesheet);
+        }
+        stage.setScene(scene);
+        stage.setResizable(true);
+        fitWindow(first, first.title);
+    }
+
+    public static void show(View view) {
+        show(view, null, controller -> { });
+    }
+
+    /**
+     * Shows {@code view}, letting {@code prepare} fill in its controller before it appears.
+     * {@code title} replaces the view's usual window title when not null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> void show(View view, String title, Consumer<C> prepare) {
+        boolean revisit = view.cached && CACHE.containsKey(view);
+        LoadedView loaded;
+        try {
+            loaded = obtain(view);
+        } catch (IOException e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText("Failed to load " + (title != null ? title : view.title));
+            alert.setContentText("Error: " + e.getMessage());
+            alert.showAndWait();
+            return;
+        }
+
+        prepare.accept((C) loaded.controller);
+        if (scene.getRoot() != loaded.root) {
+            scene.setRoot(loaded.root);
+        }
+        fitWindow(view, title != null ? title : view.title);
+
+        if (revisit && loaded.controller instanceof Revisitable) {
+            ((Revisitable) loaded.controller).onRevisit();
+        }
+    }
+
+    private static LoadedView obtain(View view) throws IOException {
+        if (!view.cached) {
+            return load(view);
+        }
+        LoadedView loaded = CACHE.get(view);
+        if (loaded == null) {
+            loaded = load(view);
+            CACHE.put(view, loaded);
+        }
+        return loaded;
+    }
+
+    private static LoadedView load(View view) throws IOException {
+        FXMLLoader loader = new FXMLLoader(Navigator.class.getResource(view.fxml));
+        Parent root = loader.load();
+        return new LoadedView(root, loader.getController());
+    }
+
+    private static void fitWindow(View view, String title) {
+        stage.setTitle(title);
+        stage.setMinWidth(view.minWidth);
+        stage.setMinHeight(view.minHeight);
+        // Grow the window if the view needs more room; it is never moved or shrunk
+        if (stage.getWidth() < view.minWidth) {
+            stage.setWidth(view.minWidth);
+        }
+        if (stage.getHeight() < view.minHeight) {
+            stage.setHeight(view.minHeight);
+        }
+    }
+
+    private static final class LoadedView {
+        private final Parent root;
+        private final Object controller;
+
+        private LoadedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
@@ -1,28 +1,32 @@
 package com.carselling.controllers;
 
-import java.io.File;
 import java.util.List;
 
-import com.carselling.database.WatchlistDAO;
-import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+import com.carselling.services.FxRequestScope;
+import com.carselling.services.WatchlistService;
 import com.carselling.utils.SessionManager;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.Region;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
 
-public class WatchlistController {
+public class WatchlistController implements Navigator.Revisitable {
+
+    private static final String WATCHLIST_REQUEST = "watchlist";
+
+    private static final double CARD_WIDTH = 350;
+    private static final double CARD_HEIGHT = 400;
+    private static final double CARD_GAP = 20;
+    private static final double IMAGE_WIDTH = 350;
+    private static final double IMAGE_HEIGHT = 200;
 
     @FXML
     private VBox watchlistContainer;
@@ -31,192 +35,152 @@ public class WatchlistController {
     @FXML
     private Button backButton;
 
-    private final WatchlistDAO watchlistDAO = new WatchlistDAO();
+    private final WatchlistService watchlistService = new WatchlistService();
+    private FxRequestScope requests;
+    private String emptyText;
+    private final CardGrid<CarSummary> grid = new CardGrid<>(CARD_WIDTH, CARD_HEIGHT, CARD_GAP, WatchlistCard::new);
 
     @FXML
     public void initialize() {
+        requests = new FxRequestScope(backButton);
+        emptyLabel.managedProperty().bind(emptyLabel.visibleProperty());
+        // The label also carries loading and error messages, so keep its own text aside
+        emptyText = emptyLabel.getText();
+        VBox.setVgrow(grid, Priority.ALWAYS);
+        watchlistContainer.getChildren().add(grid);
+
         if (!SessionManager.isLoggedIn()) {
-            handleBack();
+            // Not in the middle of the navigation that is loading this view
+            Platform.runLater(this::handleBack);
             return;
         }
 
         loadWatchlist();
     }
 
-    private void loadWatchlist() {
-        List<Car> cars = watchlistDAO.getWatchlistCars(SessionManager.getCurrentUserId());
-
-        watchlistContainer.getChildren().clear();
-
-        if (cars.isEmpty()) {
-            emptyLabel.setVisible(true);
+    /**
+     * The watchlist may have changed on the detail view, or the user may have logged out.
+     */
+    @Override
+    public void onRevisit() {
+        if (!SessionManager.isLoggedIn()) {
+            handleBack();
             return;
         }
+        loadWatchlist();
+    }
 
-        emptyLabel.setVisible(false);
-
-        // Create a responsive FlowPane for grid layout
-        FlowPane gridPane = new FlowPane();
-        gridPane.setHgap(20);
-        gridPane.setVgap(20);
-        gridPane.setPadding(new Insets(20));
-        gridPane.setStyle("-fx-background-color: #f5f5f5;");
-
-        // Calculate card width based on container (responsive)
-        gridPane.prefWrapLengthProperty().bind(watchlistContainer.widthProperty().subtract(40));
-
-        for (Car car : cars) {
-            VBox carCard = createCarCard(car);
-            carCard.setPrefWidth(350);
-            carCard.setMaxWidth(400);
-            carCard.setMinWidth(300);
-            gridPane.getChildren().add(carCard);
-        }
+    private void loadWatchlist() {
+        emptyLabel.setText("Loading...");
+        emptyLabel.setVisible(true);
+
+        requests.submitLatest(WATCHLIST_REQUEST, watchlistService.getWatchlistCars(SessionManager.getCurrentUserId()),
+                cars -> {
+                    emptyLabel.setText(emptyText);
+                    showWatchlist(cars);
+                },
+                error -> emptyLabel.setText("Could not load your watchlist: " + error.getMessage()));
+    }
 
-        watchlistContainer.getChildren().add(gridPane);
+    private void showWatchlist(List<CarSummary> cars) {
+        grid.getItems().setAll(cars);
+        emptyLabel.setVisible(cars.isEmpty());
     }
 
-    private VBox createCarCard(Car car) {
-        VBox card = new VBox(10);
-        card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 15; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);");
-        card.setPadding(new Insets(15));
-        card.setMaxWidth(400);
-        card.setMinWidth(300);
-
-        // Image
-        ImageView imageView = new ImageView();
-        imageView.setFitHeight(200);
-        imageView.setFitWidth(350);
-        imageView.setPreserveRatio(true);
-        imageView.setSmooth(true);
-
-        if (car.getImagePath() != null && !car.getImagePath().isEmpty()) {
-            File imageFile = new File("src/main/resources/" + car.getImagePath());
-            if (imageFile.exists()) {
-                Image image = new Image(imageFile.toURI().toString());
-                imageView.setImage(image);
-            } else {
-                imageView.setStyle("-fx-background-color: #ecf0f1;");
-            }
-        } else {
-            imageView.setStyle("-fx-background-color: #ecf0f1;");
+    /**
+     * A watchlist card, rebound to other cars as the grid scrolls.
+     */
+    private final class WatchlistCard implements CardGrid.Cell<CarSummary> {
+        private final VBox card = new VBox(10);
+        private final ImageView imageView = new ImageView();
+        private final Label titleLabel = new Label();
+        private final Label priceLabel = new Label();
+        private final Label detailsLabel = new Label();
+        private CarSummary car;
+        private final ImageBinding image = new ImageBinding(imageView, IMAGE_WIDTH, IMAGE_HEIGHT, false);
+
+        private WatchlistCard() {
+            card.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 15; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);");
+            card.setPadding(new Insets(15));
+
+            // Image
+            imageView.setFitHeight(IMAGE_HEIGHT);
+            imageView.setFitWidth(IMAGE_WIDTH);
+            imageView.setPreserveRatio(true);
+            imageView.setSmooth(true);
+
+            // Car info
+            VBox infoBox = new VBox(10);
+            infoBox.setPadding(new Insets(10, 0, 0, 0));
+
+            titleLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+            titleLabel.setWrapText(true);
+            priceLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
+            detailsLabel.setStyle("-fx-text-fill: #7f8c8d;");
+            detailsLabel.setWrapText(true);
+
+            HBox buttonBox = new HBox(10);
+            Button viewButton = new Button("View Details");
+            viewButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-weight: bold; -fx-cursor: hand;");
+            viewButton.setOnAction(e -> viewCarDetails(car));
+            viewButton.setPrefWidth(150);
+
+            Button removeButton = new Button("Remove");
+            removeButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-cursor: hand;");
+            removeButton.setOnAction(e -> removeFromWatchlist(car));
+            removeButton.setPrefWidth(150);
+
+            buttonBox.getChildren().addAll(viewButton, removeButton);
+
+            infoBox.getChildren().addAll(titleLabel, priceLabel, detailsLabel, buttonBox);
+            card.getChildren().addAll(imageView, infoBox);
         }
 
-        // Car info
-        VBox infoBox = new VBox(10);
-        infoBox.setPadding(new Insets(10, 0, 0, 0));
-
-        Label titleLabel = new Label(car.getBrand() + " " + car.getModel() + " (" + car.getYear() + ")");
-        titleLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
-        titleLabel.setWrapText(true);
-
-        Label priceLabel = new Label("$" + String.format("%.2f", car.getPrice()));
-        priceLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
-
-        Label detailsLabel = new Label("Mileage: " + car.getMileage() + " miles | Color: " + (car.getColor() != null ? car.getColor() : "N/A"));
-        detailsLabel.setStyle("-fx-text-fill: #7f8c8d;");
-        detailsLabel.setWrapText(true);
-
-        HBox buttonBox = new HBox(10);
-        Button viewButton = new Button("View Details");
-        viewButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-weight: bold; -fx-cursor: hand;");
-        viewButton.setOnAction(e -> viewCarDetails(car));
-        viewButton.setPrefWidth(150);
-
-        Button removeButton = new Button("Remove");
-        removeButton.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-cursor: hand;");
-        removeButton.setOnAction(e -> removeFromWatchlist(car));
-        removeButton.setPrefWidth(150);
+        @Override
+        public Node getNode() {
+            return card;
+        }
 
-        buttonBox.getChildren().addAll(viewButton, removeButton);
+        @Override
+        public void update(CarSummary car) {
+            this.car = car;
+            if (car == null) {
+                image.unbind();
+                return;
+            }
+            image.bind(car.getImagePath());
 
-        infoBox.getChildren().addAll(titleLabel, priceLabel, detailsLabel, buttonBox);
-        card.getChildren().addAll(imageView, infoBox);
+            titleLabel.setText(car.getBrand() + " " + car.getModel() + " (" + car.getYear() + ")");
+            priceLabel.setText("$" + String.format("%.2f", car.getPrice()));
+            detailsLabel.setText("Mileage: " + car.getMileage() + " miles | Color: " + (car.getColor() != null ? car.getColor() : "N/A"));
+        }
 
-        return card;
+        @Override
+        public void setInViewport(boolean inViewport) {
+            image.setInViewport(inViewport);
+        }
     }
 
-    private void viewCarDetails(Car car) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/car_detail.fxml"));
-            Parent root = loader.load();
-            CarDetailController controller = loader.getController();
-            controller.setCar(car);
-
-            Stage stage = (Stage) backButton.getScene().getWindow();
-            
-            // Preserve window size and position
-            double currentWidth = Math.max(stage.getWidth(), 900);
-            double currentHeight = Math.max(stage.getHeight(), 700);
-            double currentX = stage.getX();
-            double currentY = stage.getY();
-            
-            Scene newScene = new Scene(root, currentWidth, currentHeight);
-            try {
-                newScene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
-            } catch (Exception e) {
-                // CSS file not found, continue without it
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            // Ensure root node respects scene size (if it's a Region)
-            if (root instanceof Region) {
-                Region region = (Region) root;
-                region.setPrefSize(currentWidth, currentHeight);
-                region.setMinSize(0, 0);
-                region.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-            }
-            
-            stage.setScene(newScene);
-            stage.setTitle("Car Details - Car Selling App");
-            stage.setMinWidth(900);
-            stage.setMinHeight(700);
-            
-            // Restore window position and size
-            stage.setX(currentX);
-            stage.setY(currentY);
-            stage.setWidth(currentWidth);
-            stage.setHeight(currentHeight);
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-            
-            // Force layout pass
-            if (root instanceof Region) {
-                ((Region) root).requestLayout();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    private void viewCarDetails(CarSummary car) {
+        Navigator.<CarDetailController>show(Navigator.View.CAR_DETAIL, null, controller -> controller.setCar(car));
     }
 
-    private void removeFromWatchlist(Car car) {
-        if (watchlistDAO.removeFromWatchlist(SessionManager.getCurrentUserId(), car.getId())) {
-            loadWatchlist(); // Refresh the list
-        }
+    private void removeFromWatchlist(CarSummary car) {
+        requests.submit(watchlistService.removeFromWatchlist(SessionManager.getCurrentUserId(), car.getId()),
+                removed -> {
+                    if (removed) {
+                        loadWatchlist(); // Refresh the list
+                    }
+                },
+                error -> {
+                    emptyLabel.setText("Could not remove " + car.getBrand() + " " + car.getModel()
+                            + " from your watchlist: " + error.getMessage());
+                    emptyLabel.setVisible(true);
+                });
     }
 
     @FXML
     private void handleBack() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/carselling/fxml/home.fxml"));
-            Parent root = loader.load();
-            Stage stage = (Stage) backButton.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            stage.setTitle("Home - Car Selling App");
-            stage.setMinWidth(1000);
-            stage.setMinHeight(700);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        Navigator.show(Navigator.View.HOME);
     }
 }
@@ -0,0 +1,67 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk insert: how many rows landed and which rows were rejected.
+ */
+public class BatchInsertResult {
+    private int insertedCount = 0;
+    private final List<Failure> failures = new ArrayList<>();
+
+    void addInserted(int count) {
+        insertedCount += count;
+    }
+
+    void addFailure(int index, Car car, String message) {
+        failures.add(new Failure(index, car, message));
+    }
+
+    void merge(BatchInsertResult other) {
+        insertedCount += other.insertedCount;
+        failures.addAll(other.failures);
+    }
+
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public static class Failure {
+        private final int index;
+        private final Car car;
+        private final String message;
+
+        Failure(int index, Car car, String message) {
+            this.index = index;
+            this.car = car;
+            this.message = message;
+        }
+
+        /**
+         * Position of the rejected row in the list passed to the bulk insert.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Car getCar() {
+            return car;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process LRU cache of {@link Car} rows keyed by id, with a per-entry time to live.
+ * Cars are copied going in and coming out, since callers edit the ones they get in place.
+ *
+ * Every invalidation moves the cache to a new generation, and a car read at an older
+ * generation is not stored, so a read that raced a write cannot put the old row back.
+ * Thread-safe; all operations take the cache's monitor.
+ */
+public class CarCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    private long generation = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    public CarCache(int maxEntries, long ttlSeconds) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        // Access order turns the map into an LRU list; the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CarCache.Entry> eldest) {
+                if (size() > CarCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Generation to pass to {@link #put}; read it before running the query.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Returns a copy of the cached car, or null on a miss or an expired entry.
+     */
+    public synchronized Car get(int id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(id);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return new Car(entry.car);
+    }
+
+    /**
+     * Stores a copy of {@code car} unless the cache was invalidated since
+     * {@code readAtGeneration}, in which case the row may already be out of date.
+     */
+    public synchronized void put(Car car, long readAtGeneration) {
+        if (car == null || maxEntries == 0 || readAtGeneration != generation) {
+            return;
+        }
+        entries.put(car.getId(), new Entry(new Car(car), System.nanoTime()));
+    }
+
+    public synchronized void invalidate(int id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Drops every expired entry; expired entries are otherwise only removed when read.
+     */
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().loadedAt > ttlNanos) {
+                it.remove();
+                expirations++;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getExpirationCount() {
+        return expirations;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CarCache[size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d]",
+                entries.size(), maxEntries, hits, misses, getHitRate() * 100, evictions, expirations);
+    }
+
+    private static final class Entry {
+        private final Car car;
+        private final long loadedAt;
+
+        private Entry(Car car, long loadedAt) {
+            this.car = car;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
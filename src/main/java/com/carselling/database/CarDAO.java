@@ -1,43 +1,101 @@
 package com.carselling.database;
 
 import com.carselling.models.Car;
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.models.Page;
+import com.carselling.utils.ConfigLoader;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
 
-public class CarDAO {
+public class CarDAO implements CarRepository {
     
+    // Columns needed by grid cards; description_excerpt is a stored generated column
+    static final String SUMMARY_COLUMNS = "id, user_id, brand, model, year, price, mileage, color, " +
+                                          "image_path, created_at, description_excerpt";
+    
+    // Full cars for list results; the description is left out and read on first use
+    static final String LIST_COLUMNS = "id, user_id, brand, model, year, price, mileage, color, " +
+                                       "image_path, created_at";
+    
+    private static final String INSERT_CAR_SQL =
+            "INSERT INTO cars (user_id, brand, model, year, price, mileage, color, description, image_path) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String TOMBSTONE_SQL =
+            "INSERT INTO car_tombstones (car_id) VALUES (?) " +
+            "ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3)";
+    
+    // A change can commit a little after the time it was stamped with; deltas re-read this much
+    private static final Duration DELTA_OVERLAP = Duration.ofSeconds(2);
+    private static final Duration TOMBSTONE_RETENTION =
+            Duration.ofHours(ConfigLoader.getLongProperty("catalog.tombstoneRetentionHours", 168));
+    
+    // Shared by every CarDAO instance so controllers see each other's cached rows and invalidations
+    private static final CarCache carCache = new CarCache(
+            ConfigLoader.getIntProperty("cache.car.maxEntries", 1000),
+            ConfigLoader.getLongProperty("cache.car.ttlSeconds", 300));
+    
+    // Facet counts go stale on any car write, so they are cached briefly and cleared by every write
+    private static final FacetCache facetCache = new FacetCache(
+            ConfigLoader.getIntProperty("cache.facets.maxEntries", 64),
+            ConfigLoader.getLongProperty("cache.facets.ttlSeconds", 30));
+    
+    // Whole query results, so repeating a search or going back to the grid skips the database
+    private static final QueryResultCache resultCache = new QueryResultCache(
+            ConfigLoader.getLongProperty("cache.results.maxBytes", 16L * 1024 * 1024));
+    
+    // Change-feed rows already invalidated for, by id and stamp; the overlap hands them out again
+    private static final Map<Integer, Timestamp> invalidatedVersions = new HashMap<>();
+    
+    public static CarCache getCarCache() {
+        return carCache;
+    }
+    
+    public static QueryResultCache getResultCache() {
+        return resultCache;
+    }
+    
+    /**
+     * Called after every car write; cached results and facet counts may no longer be true.
+     */
+    private static void carsChanged() {
+        resultCache.bumpGeneration();
+        facetCache.invalidateAll();
+    }
+    
+    @Override
     public boolean createCar(Car car) {
-        String sql = "INSERT INTO cars (user_id, brand, model, year, price, mileage, color, description, image_path) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("CarDAO.createCar");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(INSERT_CAR_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            pstmt.setInt(1, car.getUserId());
-            pstmt.setString(2, car.getBrand());
-            pstmt.setString(3, car.getModel());
-            pstmt.setInt(4, car.getYear());
-            pstmt.setBigDecimal(5, car.getPrice());
-            pstmt.setInt(6, car.getMileage());
-            pstmt.setString(7, car.getColor());
-            pstmt.setString(8, car.getDescription());
-            pstmt.setString(9, car.getImagePath());
+            bindInsert(pstmt, car);
             
             int rowsAffected = pstmt.executeUpdate();
+            DatabaseConnection.recordWrite();
             
             if (rowsAffected > 0) {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         car.setId(generatedKeys.getInt(1));
+                        carCache.invalidate(car.getId());
                     }
                 }
+                carsChanged();
                 return true;
             }
             
@@ -49,16 +107,118 @@ public class CarDAO {
         return false;
     }
     
+    @Override
+    public BatchInsertResult createCars(List<Car> cars) {
+        return createCars(cars, ConfigLoader.getIntProperty("db.batch.chunkSize", 500));
+    }
+    
+    /**
+     * Inserts many cars using JDBC batching, one transaction per chunk. Generated ids are
+     * written back onto each Car. If a chunk fails, it is rolled back and replayed row by
+     * row so only the offending rows are reported as failures.
+     */
+    @Override
+    public BatchInsertResult createCars(List<Car> cars, int chunkSize) {
+        BatchInsertResult result = new BatchInsertResult();
+        if (cars.isEmpty()) {
+            return result;
+        }
+        int size = Math.max(1, chunkSize);
+        
+        Connection conn = DatabaseConnection.getConnection("CarDAO.createCars");
+        if (conn == null) {
+            for (int i = 0; i < cars.size(); i++) {
+                result.addFailure(i, cars.get(i), "No database connection");
+            }
+            return result;
+        }
+        
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(INSERT_CAR_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            conn.setAutoCommit(false);
+            
+            for (int start = 0; start < cars.size(); start += size) {
+                List<Car> chunk = cars.subList(start, Math.min(start + size, cars.size()));
+                try {
+                    for (Car car : chunk) {
+                        bindInsert(pstmt, car);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    assignGeneratedKeys(pstmt, chunk);
+                    conn.commit();
+                    DatabaseConnection.recordWrite();
+                    result.addInserted(chunk.size());
+                } catch (SQLException e) {
+                    conn.rollback();
+                    pstmt.clearBatch();
+                    insertRowByRow(conn, pstmt, chunk, start, result);
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error bulk inserting cars: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            carsChanged();
+        }
+        
+        return result;
+    }
+    
+    private void insertRowByRow(Connection conn, PreparedStatement pstmt, List<Car> chunk,
+                                int offset, BatchInsertResult result) throws SQLException {
+        for (int i = 0; i < chunk.size(); i++) {
+            Car car = chunk.get(i);
+            try {
+                bindInsert(pstmt, car);
+                pstmt.executeUpdate();
+                assignGeneratedKeys(pstmt, chunk.subList(i, i + 1));
+                conn.commit();
+                DatabaseConnection.recordWrite();
+                result.addInserted(1);
+            } catch (SQLException e) {
+                conn.rollback();
+                car.setId(0);
+                result.addFailure(offset + i, car, e.getMessage());
+            }
+        }
+    }
+    
+    private void assignGeneratedKeys(PreparedStatement pstmt, List<Car> cars) throws SQLException {
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            // Keys come back in insert order, also for rewritten multi-row batches
+            for (Car car : cars) {
+                if (!generatedKeys.next()) {
+                    break;
+                }
+                car.setId(generatedKeys.getInt(1));
+            }
+        }
+    }
+    
+    private void bindInsert(PreparedStatement pstmt, Car car) throws SQLException {
+        pstmt.setInt(1, car.getUserId());
+        pstmt.setString(2, car.getBrand());
+        pstmt.setString(3, car.getModel());
+        pstmt.setInt(4, car.getYear());
+        pstmt.setBigDecimal(5, car.getPrice());
+        pstmt.setInt(6, car.getMileage());
+        pstmt.setString(7, car.getColor());
+        pstmt.setString(8, car.getDescription());
+        pstmt.setString(9, car.getImagePath());
+    }
+    
+    @Override
     public boolean updateCar(Car car) {
         String sql = "UPDATE cars SET brand = ?, model = ?, year = ?, price = ?, mileage = ?, " +
                      "color = ?, description = ?, image_path = ? WHERE id = ? AND user_id = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("CarDAO.updateCar");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, car.getBrand());
             pstmt.setString(2, car.getModel());
@@ -72,54 +232,86 @@ public class CarDAO {
             pstmt.setInt(10, car.getUserId());
             
             int rowsAffected = pstmt.executeUpdate();
+            DatabaseConnection.recordWrite();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error updating car: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // Callers edit the Car in place, so drop it even when the update failed
+            carCache.invalidate(car.getId());
+            carsChanged();
         }
         
         return false;
     }
     
+    @Override
     public boolean deleteCar(int carId, int userId) {
         String sql = "DELETE FROM cars WHERE id = ? AND user_id = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("CarDAO.deleteCar");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement tombstone = conn.prepareStatement(TOMBSTONE_SQL)) {
             
+            // The tombstone commits with the delete so delta readers never miss a removal
+            conn.setAutoCommit(false);
             pstmt.setInt(1, carId);
             pstmt.setInt(2, userId);
             
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                tombstone.setInt(1, carId);
+                tombstone.executeUpdate();
+            }
+            conn.commit();
+            DatabaseConnection.recordWrite();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
             System.err.println("Error deleting car: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            carCache.invalidate(carId);
+            carsChanged();
         }
         
         return false;
     }
     
+    @Override
     public Car getCarById(int id) {
+        long generation = carCache.generation();
+        Car cached = carCache.get(id);
+        if (cached != null) {
+            // Cars cached from a list read may still lack their description; read it here, off the FX thread
+            if (!cached.isDescriptionLoaded()) {
+                cached.getDescription();
+                carCache.put(cached, generation);
+            }
+            return cached;
+        }
+        
         String sql = "SELECT * FROM cars WHERE id = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.getCarById");
         if (conn == null) {
             return null;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToCar(rs);
+                    Car car = CarRowMappers.CAR.planFor(sql, rs).map(rs);
+                    carCache.put(car, generation);
+                    return car;
                 }
             }
             
@@ -131,21 +323,58 @@ public class CarDAO {
         return null;
     }
     
+    /**
+     * Reads one car's description for {@link Car#getDescription()} on cars mapped without it.
+     * Returns null if the car is gone or the read fails.
+     */
+    static String loadDescription(int carId) {
+        String sql = "SELECT description FROM cars WHERE id = ?";
+        
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.loadDescription");
+        if (conn == null) {
+            return null;
+        }
+        
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, carId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading car description: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    @Override
     public List<Car> getAllCars() {
-        List<Car> cars = new ArrayList<>();
-        String sql = "SELECT * FROM cars ORDER BY created_at DESC";
+        List<Car> cars = resultCache.get("getAllCars");
+        if (cars != null) {
+            return cars;
+        }
+        long generation = resultCache.generation();
+        long carGeneration = carCache.generation();
+        
+        cars = new ArrayList<>();
+        String sql = "SELECT " + LIST_COLUMNS + " FROM cars ORDER BY created_at DESC";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.getAllCars");
         if (conn == null) {
             return cars;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
+            RowMapper.Plan<Car> plan = CarRowMappers.CAR.planFor(sql, rs);
             while (rs.next()) {
-                cars.add(mapResultSetToCar(rs));
+                Car car = plan.map(rs);
+                carCache.put(car, carGeneration);
+                cars.add(car);
             }
+            resultCache.put(cars, generation, "getAllCars");
             
         } catch (SQLException e) {
             System.err.println("Error getting all cars: " + e.getMessage());
@@ -155,23 +384,32 @@ public class CarDAO {
         return cars;
     }
     
-    public List<Car> getCarsByUserId(int userId) {
-        List<Car> cars = new ArrayList<>();
-        String sql = "SELECT * FROM cars WHERE user_id = ? ORDER BY created_at DESC";
+    @Override
+    public List<CarSummary> getCarsByUserId(int userId) {
+        List<CarSummary> cars = resultCache.get("getCarsByUserId", userId);
+        if (cars != null) {
+            return cars;
+        }
+        long generation = resultCache.generation();
         
-        Connection conn = DatabaseConnection.getConnection();
+        cars = new ArrayList<>();
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM cars WHERE user_id = ? ORDER BY created_at DESC";
+        
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.getCarsByUserId");
         if (conn == null) {
             return cars;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper.Plan<CarSummary> plan = CarRowMappers.SUMMARY.planFor(sql, rs);
                 while (rs.next()) {
-                    cars.add(mapResultSetToCar(rs));
+                    cars.add(plan.map(rs));
                 }
             }
+            resultCache.put(cars, generation, "getCarsByUserId", userId);
             
         } catch (SQLException e) {
             System.err.println("Error getting cars by user ID: " + e.getMessage());
@@ -181,87 +419,448 @@ public class CarDAO {
         return cars;
     }
     
+    @Override
     public List<Car> searchCars(String brand, String model, Integer minYear, Integer maxYear, 
                                 BigDecimal minPrice, BigDecimal maxPrice) {
-        List<Car> cars = new ArrayList<>();
+        CarFilter filter = new CarFilter(brand, model, minYear, maxYear, minPrice, maxPrice).normalized();
+        List<Car> cars = resultCache.get("searchCars", filter);
+        if (cars != null) {
+            return cars;
+        }
+        long generation = resultCache.generation();
+        long carGeneration = carCache.generation();
+        
+        cars = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + LIST_COLUMNS + " FROM cars WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilter(sql, params, filter);
+        
+        sql.append(" ORDER BY created_at DESC");
+        
+        String sqlText = sql.toString();
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.searchCars");
+        if (conn == null) {
+            return cars;
+        }
+        
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sqlText)) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper.Plan<Car> plan = CarRowMappers.CAR.planFor(sqlText, rs);
+                while (rs.next()) {
+                    Car car = plan.map(rs);
+                    carCache.put(car, carGeneration);
+                    cars.add(car);
+                }
+            }
+            resultCache.put(cars, generation, "searchCars", filter);
+            
+        } catch (SQLException e) {
+            System.err.println("Error searching cars: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return cars;
+    }
+    
+    /**
+     * Streams every matching car to the callback without buffering the result set, so heap
+     * use stays constant regardless of row count. Checked before each row, a true
+     * {@code cancelled} aborts the query server-side. Returns the number of rows delivered.
+     */
+    @Override
+    public long streamCars(CarFilter filter, RowCallback<Car> callback, BooleanSupplier cancelled) throws Exception {
         StringBuilder sql = new StringBuilder("SELECT * FROM cars WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
-        if (brand != null && !brand.trim().isEmpty()) {
-            sql.append(" AND brand LIKE ?");
-            params.add("%" + brand + "%");
+        appendFilter(sql, params, filter);
+        
+        sql.append(" ORDER BY created_at DESC, id DESC");
+        
+        String sqlText = sql.toString();
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.streamCars");
+        if (conn == null) {
+            throw new SQLException("No database connection");
         }
         
-        if (model != null && !model.trim().isEmpty()) {
-            sql.append(" AND model LIKE ?");
-            params.add("%" + model + "%");
+        long rows = 0;
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sqlText,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            // Integer.MIN_VALUE tells Connector/J to stream rows instead of reading them all into memory
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper.Plan<Car> plan = CarRowMappers.CAR.planFor(sqlText, rs);
+                while (rs.next()) {
+                    if (cancelled.getAsBoolean()) {
+                        // Stop the server from sending the rest, otherwise close() drains it
+                        pstmt.cancel();
+                        break;
+                    }
+                    callback.accept(plan.map(rs));
+                    rows++;
+                }
+            } catch (SQLException e) {
+                if (!cancelled.getAsBoolean()) {
+                    throw e;
+                }
+            }
         }
         
-        if (minYear != null) {
-            sql.append(" AND year >= ?");
-            params.add(minYear);
+        return rows;
+    }
+    
+    /**
+     * Returns one page of matching cars, newest first. Pass null as the cursor for the
+     * first page and {@link Page#getNextCursor()} for the following ones.
+     */
+    @Override
+    public Page<CarSummary> searchCarsPage(CarFilter filter, String cursor, int pageSize) {
+        CarFilter key = filter.normalized();
+        List<CarSummary> cars = resultCache.get("searchCarsPage", key, cursor, pageSize);
+        if (cars == null) {
+            cars = loadPage(key, cursor, pageSize);
+            if (cars == null) {
+                return Page.empty();
+            }
         }
         
-        if (maxYear != null) {
-            sql.append(" AND year <= ?");
-            params.add(maxYear);
+        String nextCursor = null;
+        if (cars.size() > pageSize) {
+            cars.remove(pageSize);
+            CarSummary last = cars.get(pageSize - 1);
+            nextCursor = new PageCursor(Timestamp.valueOf(last.getCreatedAt()), last.getId()).encode();
         }
         
-        if (minPrice != null) {
-            sql.append(" AND price >= ?");
-            params.add(minPrice);
+        return new Page<>(cars, nextCursor);
+    }
+    
+    /**
+     * Loads up to pageSize + 1 rows after the cursor, or null if the query failed.
+     */
+    private List<CarSummary> loadPage(CarFilter filter, String cursor, int pageSize) {
+        long generation = resultCache.generation();
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + " FROM cars WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilter(sql, params, filter);
+        
+        PageCursor after = PageCursor.decode(cursor);
+        if (after != null) {
+            // Seek past the last row of the previous page instead of using OFFSET
+            sql.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+            params.add(after.getCreatedAt());
+            params.add(after.getCreatedAt());
+            params.add(after.getId());
         }
         
-        if (maxPrice != null) {
-            sql.append(" AND price <= ?");
-            params.add(maxPrice);
+        // Fetch one extra row to learn whether another page exists
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        params.add(pageSize + 1);
+        
+        String sqlText = sql.toString();
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.searchCarsPage");
+        if (conn == null) {
+            return null;
         }
         
-        sql.append(" ORDER BY created_at DESC");
+        List<CarSummary> cars = new ArrayList<>(pageSize + 1);
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sqlText)) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper.Plan<CarSummary> plan = CarRowMappers.SUMMARY.planFor(sqlText, rs);
+                while (rs.next()) {
+                    cars.add(plan.map(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading car page: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        
+        // Cached with the look-ahead row so a hit rebuilds the same cursor
+        resultCache.put(cars, generation, "searchCarsPage", filter, cursor, pageSize);
+        return cars;
+    }
+    
+    /**
+     * Free-text search over brand, model and description using the FULLTEXT index,
+     * combined with the regular filter predicates and ordered by relevance.
+     */
+    @Override
+    public List<CarSummary> searchCarsFullText(String query, TextSearchMode mode, CarFilter filter, int limit) {
+        List<CarSummary> cars = new ArrayList<>();
+        if (query == null || query.trim().isEmpty()) {
+            return cars;
+        }
+        
+        String match = "MATCH(brand, model, description) AGAINST (? " + mode.getModifier() + ")";
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + ", " + match + " AS relevance " +
+                                                    "FROM cars WHERE " + match);
+        List<Object> params = new ArrayList<>();
+        params.add(query.trim());
+        params.add(query.trim());
+        
+        appendFilter(sql, params, filter);
         
-        Connection conn = DatabaseConnection.getConnection();
+        sql.append(" ORDER BY relevance DESC, created_at DESC, id DESC LIMIT ?");
+        params.add(limit);
+        
+        String sqlText = sql.toString();
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.searchCarsFullText");
         if (conn == null) {
             return cars;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sqlText)) {
             
             for (int i = 0; i < params.size(); i++) {
                 pstmt.setObject(i + 1, params.get(i));
             }
             
             try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper.Plan<CarSummary> plan = CarRowMappers.SUMMARY.planFor(sqlText, rs);
                 while (rs.next()) {
-                    cars.add(mapResultSetToCar(rs));
+                    cars.add(plan.map(rs));
                 }
             }
             
         } catch (SQLException e) {
-            System.err.println("Error searching cars: " + e.getMessage());
+            System.err.println("Error running full-text search: " + e.getMessage());
             e.printStackTrace();
         }
         
         return cars;
     }
     
-    private Car mapResultSetToCar(ResultSet rs) throws SQLException {
-        Car car = new Car();
-        car.setId(rs.getInt("id"));
-        car.setUserId(rs.getInt("user_id"));
-        car.setBrand(rs.getString("brand"));
-        car.setModel(rs.getString("model"));
-        car.setYear(rs.getInt("year"));
-        car.setPrice(rs.getBigDecimal("price"));
-        car.setMileage(rs.getInt("mileage"));
-        car.setColor(rs.getString("color"));
-        car.setDescription(rs.getString("description"));
-        car.setImagePath(rs.getString("image_path"));
-        
-        Timestamp timestamp = rs.getTimestamp("created_at");
-        if (timestamp != null) {
-            car.setCreatedAt(timestamp.toLocalDateTime());
-        }
-        
-        return car;
+    /**
+     * Counts matching cars per brand, year, price band and mileage band in one aggregated
+     * query: rows are grouped on all four at once and rolled up per facet in Java, so the
+     * table is scanned a single time. Results are cached briefly per filter.
+     */
+    @Override
+    public CarFacets getFacets(CarFilter filter) {
+        filter = filter.normalized();
+        CarFacets cached = facetCache.get(filter);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = facetCache.generation();
+        
+        // INTERVAL() returns the band index directly, and -1 for NULL
+        StringBuilder sql = new StringBuilder("SELECT brand, year, " +
+                "INTERVAL(price, " + joinEdges(CarFacets.PRICE_BANDS) + ") AS price_band, " +
+                "INTERVAL(mileage, " + joinEdges(CarFacets.MILEAGE_BANDS) + ") AS mileage_band, " +
+                "COUNT(*) AS cars FROM cars WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        
+        appendFilter(sql, params, filter);
+        
+        sql.append(" GROUP BY brand, year, price_band, mileage_band");
+        
+        Connection conn = DatabaseConnection.getReadConnection("CarDAO.getFacets");
+        if (conn == null) {
+            return CarFacets.empty();
+        }
+        
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            
+            CarFacets.Builder builder = new CarFacets.Builder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getLong(5));
+                }
+            }
+            
+            CarFacets facets = builder.build();
+            facetCache.put(filter, facets, generation);
+            return facets;
+            
+        } catch (SQLException e) {
+            System.err.println("Error counting facets: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return CarFacets.empty();
+    }
+    
+    /**
+     * Reads listings changed and deleted after the watermark. Runs on the primary, since a
+     * lagging replica could hand out a watermark ahead of rows it has not received yet.
+     * The new watermark comes from the server clock, minus a small overlap so rows stamped
+     * just before it but committed just after are picked up next time.
+     */
+    @Override
+    public CarDelta getChangesSince(LocalDateTime since) {
+        Connection conn = DatabaseConnection.getConnection("CarDAO.getChangesSince");
+        if (conn == null) {
+            return CarDelta.none(since);
+        }
+        
+        String changedSql = "SELECT " + SUMMARY_COLUMNS + ", updated_at FROM cars WHERE updated_at > ? " +
+                            "ORDER BY created_at DESC, id DESC";
+        String removedSql = "SELECT car_id, deleted_at FROM car_tombstones WHERE deleted_at > ?";
+        
+        try (conn; Statement stmt = conn.createStatement();
+             PreparedStatement changedStmt = conn.prepareStatement(changedSql);
+             PreparedStatement removedStmt = conn.prepareStatement(removedSql)) {
+            
+            LocalDateTime now;
+            try (ResultSet rs = stmt.executeQuery("SELECT NOW(3)")) {
+                rs.next();
+                now = rs.getTimestamp(1).toLocalDateTime();
+            }
+            LocalDateTime watermark = now.minus(DELTA_OVERLAP);
+            
+            if (since == null) {
+                return CarDelta.none(watermark);
+            }
+            if (since.isBefore(now.minus(TOMBSTONE_RETENTION))) {
+                // Tombstones that old have been purged, so removals could be missed
+                return CarDelta.reload(watermark);
+            }
+            
+            List<CarSummary> changed = new ArrayList<>();
+            Map<Integer, Timestamp> versions = new HashMap<>();
+            changedStmt.setTimestamp(1, Timestamp.valueOf(since));
+            try (ResultSet rs = changedStmt.executeQuery()) {
+                RowMapper.Plan<CarSummary> plan = CarRowMappers.SUMMARY.planFor(changedSql, rs);
+                while (rs.next()) {
+                    CarSummary car = plan.map(rs);
+                    changed.add(car);
+                    versions.put(car.getId(), rs.getTimestamp("updated_at"));
+                }
+            }
+            
+            List<Integer> removed = new ArrayList<>();
+            removedStmt.setTimestamp(1, Timestamp.valueOf(since));
+            try (ResultSet rs = removedStmt.executeQuery()) {
+                while (rs.next()) {
+                    removed.add(rs.getInt(1));
+                    versions.put(rs.getInt(1), rs.getTimestamp(2));
+                }
+            }
+            
+            // Other clients' writes never reach our caches otherwise
+            invalidateChanges(versions, watermark);
+            
+            return new CarDelta(changed, removed, watermark, false);
+            
+        } catch (SQLException e) {
+            System.err.println("Error reading car changes: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return CarDelta.none(since);
+    }
+    
+    /**
+     * Invalidates the caches for change-feed rows not seen before. Rows inside the watermark
+     * overlap come back on the next poll too, and flushing the result and facet caches for
+     * them again would clear those caches on nearly every poll.
+     */
+    private static void invalidateChanges(Map<Integer, Timestamp> versions, LocalDateTime watermark) {
+        boolean anyNew = false;
+        synchronized (invalidatedVersions) {
+            for (Map.Entry<Integer, Timestamp> version : versions.entrySet()) {
+                Timestamp previous = invalidatedVersions.put(version.getKey(), version.getValue());
+                if (previous == null || !previous.equals(version.getValue())) {
+                    carCache.invalidate(version.getKey());
+                    anyNew = true;
+                }
+            }
+            // Past the overlap a row is only returned to callers that fell behind, which is rare
+            Timestamp horizon = Timestamp.valueOf(watermark.minus(DELTA_OVERLAP));
+            invalidatedVersions.values().removeIf(stamp -> stamp == null || stamp.before(horizon));
+        }
+        if (anyNew) {
+            carsChanged();
+        }
+    }
+    
+    /**
+     * Drops tombstones older than the retention period; clients further behind reload in full.
+     */
+    public int purgeTombstones() {
+        String sql = "DELETE FROM car_tombstones WHERE deleted_at < ?";
+        
+        Connection conn = DatabaseConnection.getConnection("CarDAO.purgeTombstones");
+        if (conn == null) {
+            return 0;
+        }
+        
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minus(TOMBSTONE_RETENTION)));
+            return pstmt.executeUpdate();
+            
+        } catch (SQLException e) {
+            System.err.println("Error purging car tombstones: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return 0;
+    }
+    
+    private static String joinEdges(int[] edges) {
+        StringBuilder joined = new StringBuilder();
+        for (int edge : edges) {
+            if (joined.length() > 0) {
+                joined.append(", ");
+            }
+            joined.append(edge);
+        }
+        return joined.toString();
+    }
+    
+    private void appendFilter(StringBuilder sql, List<Object> params, CarFilter filter) {
+        if (filter.getBrand() != null && !filter.getBrand().trim().isEmpty()) {
+            sql.append(" AND brand LIKE ?");
+            params.add("%" + filter.getBrand() + "%");
+        }
+        
+        if (filter.getModel() != null && !filter.getModel().trim().isEmpty()) {
+            sql.append(" AND model LIKE ?");
+            params.add("%" + filter.getModel() + "%");
+        }
+        
+        if (filter.getMinYear() != null) {
+            sql.append(" AND year >= ?");
+            params.add(filter.getMinYear());
+        }
+        
+        if (filter.getMaxYear() != null) {
+            sql.append(" AND year <= ?");
+            params.add(filter.getMaxYear());
+        }
+        
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND price >= ?");
+            params.add(filter.getMinPrice());
+        }
+        
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND price <= ?");
+            params.add(filter.getMaxPrice());
+        }
     }
 }
@@ -0,0 +1,75 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.models.Page;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Storage for car listings. {@link CarDAO} is the MySQL implementation and
+ * {@link InMemoryCarRepository} the embedded one; {@link Repositories} picks one from config.
+ */
+public interface CarRepository {
+
+    boolean createCar(Car car);
+
+    BatchInsertResult createCars(List<Car> cars);
+
+    /**
+     * Inserts many cars, writing generated ids back onto each Car. Rows that cannot be stored
+     * are reported as failures without failing the rest.
+     */
+    BatchInsertResult createCars(List<Car> cars, int chunkSize);
+
+    boolean updateCar(Car car);
+
+    boolean deleteCar(int carId, int userId);
+
+    Car getCarById(int id);
+
+    List<Car> getAllCars();
+
+    List<CarSummary> getCarsByUserId(int userId);
+
+    List<Car> searchCars(String brand, String model, Integer minYear, Integer maxYear,
+                         BigDecimal minPrice, BigDecimal maxPrice);
+
+    /**
+     * Delivers every matching car to the callback, newest first, without buffering them all.
+     * Returns the number of rows delivered.
+     */
+    long streamCars(CarFilter filter, RowCallback<Car> callback, BooleanSupplier cancelled) throws Exception;
+
+    default Page<CarSummary> getCarsPage(String cursor, int pageSize) {
+        return searchCarsPage(CarFilter.none(), cursor, pageSize);
+    }
+
+    /**
+     * Returns one page of matching cars, newest first. Pass null as the cursor for the
+     * first page and {@link Page#getNextCursor()} for the following ones.
+     */
+    Page<CarSummary> searchCarsPage(CarFilter filter, String cursor, int pageSize);
+
+    /**
+     * Free-text search over brand, model and description, ordered by relevance.
+     */
+    List<CarSummary> searchCarsFullText(String query, TextSearchMode mode, CarFilter filter, int limit);
+
+    /**
+     * Counts the cars matching the filter per brand, model year, price band and mileage band.
+     */
+    CarFacets getFacets(CarFilter filter);
+
+    /**
+     * Listings inserted, updated or deleted after the watermark, by anyone. With a null
+     * watermark nothing is returned but a watermark to start from.
+     */
+    CarDelta getChangesSince(LocalDateTime watermark);
+}
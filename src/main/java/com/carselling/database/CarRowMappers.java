@@ -0,0 +1,91 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+
+import java.sql.Timestamp;
+
+/**
+ * Row mappers for the cars table, shared by every DAO that reads listings. A car selected
+ * without its description column reads the description on first access.
+ */
+public final class CarRowMappers {
+
+    public static final RowMapper<Car> CAR = new RowMapper<>(columns -> {
+        int id = columns.require("id");
+        int userId = columns.require("user_id");
+        int brand = columns.require("brand");
+        int model = columns.require("model");
+        int year = columns.require("year");
+        int price = columns.require("price");
+        int mileage = columns.require("mileage");
+        int color = columns.require("color");
+        int description = columns.optional("description");
+        int imagePath = columns.require("image_path");
+        int createdAt = columns.require("created_at");
+
+        return rs -> {
+            Car car = new Car();
+            car.setId(rs.getInt(id));
+            car.setUserId(rs.getInt(userId));
+            car.setBrand(rs.getString(brand));
+            car.setModel(rs.getString(model));
+            car.setYear(rs.getInt(year));
+            car.setPrice(rs.getBigDecimal(price));
+            car.setMileage(rs.getInt(mileage));
+            car.setColor(rs.getString(color));
+            if (description == 0) {
+                car.setDescriptionLoader(CarDAO::loadDescription);
+            } else {
+                car.setDescription(rs.getString(description));
+            }
+            car.setImagePath(rs.getString(imagePath));
+
+            Timestamp timestamp = rs.getTimestamp(createdAt);
+            if (timestamp != null) {
+                car.setCreatedAt(timestamp.toLocalDateTime());
+            }
+
+            return car;
+        };
+    });
+
+    public static final RowMapper<CarSummary> SUMMARY = new RowMapper<>(columns -> {
+        int id = columns.require("id");
+        int userId = columns.require("user_id");
+        int brand = columns.require("brand");
+        int model = columns.require("model");
+        int year = columns.require("year");
+        int price = columns.require("price");
+        int mileage = columns.require("mileage");
+        int color = columns.require("color");
+        int shortDescription = columns.require("description_excerpt");
+        int imagePath = columns.require("image_path");
+        int createdAt = columns.require("created_at");
+
+        return rs -> {
+            CarSummary summary = new CarSummary();
+            summary.setId(rs.getInt(id));
+            summary.setUserId(rs.getInt(userId));
+            summary.setBrand(rs.getString(brand));
+            summary.setModel(rs.getString(model));
+            summary.setYear(rs.getInt(year));
+            summary.setPrice(rs.getBigDecimal(price));
+            summary.setMileage(rs.getInt(mileage));
+            summary.setColor(rs.getString(color));
+            summary.setShortDescription(rs.getString(shortDescription));
+            summary.setImagePath(rs.getString(imagePath));
+
+            Timestamp timestamp = rs.getTimestamp(createdAt);
+            if (timestamp != null) {
+                summary.setCreatedAt(timestamp.toLocalDateTime());
+            }
+
+            return summary;
+        };
+    });
+
+    private CarRowMappers() {
+        // Private constructor to prevent instantiation
+    }
+}
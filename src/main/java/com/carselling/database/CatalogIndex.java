@@ -0,0 +1,457 @@
+package com.carselling.database;
+
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.utils.StringDictionary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-process, column-oriented copy of the catalog for filtering without a database round
+ * trip. Every listing is one row across parallel primitive arrays: year, price in cents,
+ * mileage, and brand, model and color as {@link StringDictionary} codes. A filter compiles
+ * to int and long bounds plus a per-code match table for the brand and model substrings,
+ * so the scan itself allocates nothing and touches no objects.
+ *
+ * Rows are kept in ascending (created_at, id) order, so new listings append and scans walk
+ * backwards to produce the catalog's newest-first order. Deleted rows are flagged and
+ * compacted away once they pile up. Reads share a lock; writes are exclusive.
+ */
+public class CatalogIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final BigDecimal MAX_AMOUNT = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+    private static final BigDecimal MIN_AMOUNT = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+
+    private final StringDictionary brands = new StringDictionary();
+    private final StringDictionary models = new StringDictionary();
+    private final StringDictionary colors = new StringDictionary();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean parallel;
+    private final int parallelThreshold;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private boolean[] deleted = new boolean[INITIAL_CAPACITY];
+    private int[] userIds = new int[INITIAL_CAPACITY];
+    private int[] years = new int[INITIAL_CAPACITY];
+    private int[] mileages = new int[INITIAL_CAPACITY];
+    private int[] brandCodes = new int[INITIAL_CAPACITY];
+    private int[] modelCodes = new int[INITIAL_CAPACITY];
+    private int[] colorCodes = new int[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    // created_at as nanoseconds since the epoch, read as UTC; only used for ordering
+    private long[] createdKeys = new long[INITIAL_CAPACITY];
+    // Only needed to draw a card, not to filter
+    private String[] imagePaths = new String[INITIAL_CAPACITY];
+    private String[] excerpts = new String[INITIAL_CAPACITY];
+
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+    private int rows = 0;
+    private int liveRows = 0;
+
+    /**
+     * @param parallel          split full scans across cores
+     * @param parallelThreshold minimum row count before a scan is split
+     */
+    public CatalogIndex(boolean parallel, int parallelThreshold) {
+        this.parallel = parallel;
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with {@code cars}, in any order.
+     */
+    public void replaceAll(Collection<CarSummary> cars) {
+        List<CarSummary> sorted = new ArrayList<>(cars);
+        sorted.sort(Comparator.comparingLong((CarSummary car) -> createdKey(car.getCreatedAt()))
+                .thenComparingInt(CarSummary::getId));
+
+        lock.writeLock().lock();
+        try {
+            rows = 0;
+            liveRows = 0;
+            rowById.clear();
+            ensureCapacity(sorted.size());
+            Arrays.fill(deleted, false);
+            for (CarSummary car : sorted) {
+                set(rows, car);
+                rowById.put(car.getId(), rows);
+                rows++;
+                liveRows++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a listing or overwrites the row with the same id.
+     */
+    public void upsert(CarSummary car) {
+        long key = createdKey(car.getCreatedAt());
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(car.getId());
+            if (row != null && createdKeys[row] == key) {
+                set(row, car);
+                return;
+            }
+            if (row != null) {
+                removeRow(row);
+            }
+
+            int position = insertionPoint(key, car.getId());
+            ensureCapacity(rows + 1);
+            if (position < rows) {
+                // Out of order (an old listing arriving late); rare, so shifting is fine
+                shiftRight(position);
+            }
+            set(position, car);
+            rowById.put(car.getId(), position);
+            rows++;
+            liveRows++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(id);
+            if (row != null) {
+                removeRow(row);
+                if (rows - liveRows > Math.max(INITIAL_CAPACITY, liveRows / 4)) {
+                    compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of every matching listing, newest first.
+     */
+    public int[] search(CarFilter filter) {
+        lock.readLock().lock();
+        try {
+            Query query = compile(filter, 0);
+            if (parallel && rows >= parallelThreshold) {
+                return parallelScan(query);
+            }
+            int[] out = new int[liveRows];
+            int found = scan(query, rows, 0, out, out.length);
+            return Arrays.copyOf(out, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of up to {@code limit} matching listings, newest first, that come after the
+     * (created_at, id) position in the catalog order; a null position starts at the top.
+     */
+    public int[] searchAfter(CarFilter filter, int userId, LocalDateTime afterCreatedAt, int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Query query = compile(filter, userId);
+            // Rows below the cursor position come after it in newest-first order; ids are
+            // ints, so "after (key, id - 1)" is the first row at or above the cursor
+            int from = afterCreatedAt == null ? rows : insertionPoint(createdKey(afterCreatedAt), afterId - 1);
+            int[] out = new int[Math.min(limit, liveRows)];
+            int found = scan(query, from, 0, out, out.length);
+            return Arrays.copyOf(out, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds grid cards for the ids, in the given order; ids no longer present are skipped.
+     */
+    public List<CarSummary> resolve(int[] carIds) {
+        List<CarSummary> cars = new ArrayList<>(carIds.length);
+        lock.readLock().lock();
+        try {
+            for (int id : carIds) {
+                Integer row = rowById.get(id);
+                if (row != null) {
+                    cars.add(toSummary(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return cars;
+    }
+
+    /**
+     * Compiled filter bounds. Prices compare in cents, rounded so the inclusive bounds
+     * select exactly what DECIMAL(10, 2) comparisons would.
+     */
+    private static final class Query {
+        private int minYear = Integer.MIN_VALUE;
+        private int maxYear = Integer.MAX_VALUE;
+        private long minCents = Long.MIN_VALUE;
+        private long maxCents = Long.MAX_VALUE;
+        private boolean[] brandMatches;
+        private boolean[] modelMatches;
+        private int userId;
+    }
+
+    private Query compile(CarFilter filter, int userId) {
+        Query query = new Query();
+        if (filter.getMinYear() != null) {
+            query.minYear = filter.getMinYear();
+        }
+        if (filter.getMaxYear() != null) {
+            query.maxYear = filter.getMaxYear();
+        }
+        if (filter.getMinPrice() != null) {
+            query.minCents = toCents(filter.getMinPrice(), RoundingMode.CEILING);
+        }
+        if (filter.getMaxPrice() != null) {
+            query.maxCents = toCents(filter.getMaxPrice(), RoundingMode.FLOOR);
+        }
+        if (filter.getBrand() != null && !filter.getBrand().trim().isEmpty()) {
+            query.brandMatches = brands.containing(filter.getBrand());
+        }
+        if (filter.getModel() != null && !filter.getModel().trim().isEmpty()) {
+            query.modelMatches = models.containing(filter.getModel());
+        }
+        query.userId = userId;
+        return query;
+    }
+
+    /**
+     * Walks rows {@code [to, from)} from the top down, writing matching ids into
+     * {@code out} until {@code limit} are found. Returns the number written.
+     */
+    private int scan(Query query, int from, int to, int[] out, int limit) {
+        // Locals let the JIT keep the arrays and bounds in registers
+        int[] ids = this.ids;
+        boolean[] deleted = this.deleted;
+        int[] userIds = this.userIds;
+        int[] years = this.years;
+        long[] priceCents = this.priceCents;
+        int[] brandCodes = this.brandCodes;
+        int[] modelCodes = this.modelCodes;
+        int minYear = query.minYear;
+        int maxYear = query.maxYear;
+        long minCents = query.minCents;
+        long maxCents = query.maxCents;
+        boolean[] brandMatches = query.brandMatches;
+        boolean[] modelMatches = query.modelMatches;
+        int userId = query.userId;
+
+        int found = 0;
+        for (int row = from - 1; row >= to && found < limit; row--) {
+            int id = ids[row];
+            int year = years[row];
+            long cents = priceCents[row];
+            if (!deleted[row]
+                    && year >= minYear && year <= maxYear
+                    && cents >= minCents && cents <= maxCents
+                    && (userId == 0 || userIds[row] == userId)
+                    && (brandMatches == null || brandMatches[brandCodes[row]])
+                    && (modelMatches == null || modelMatches[modelCodes[row]])) {
+                out[found++] = id;
+            }
+        }
+        return found;
+    }
+
+    private int[] parallelScan(Query query) {
+        int parts = Runtime.getRuntime().availableProcessors();
+        int chunk = (rows + parts - 1) / parts;
+
+        // Part 0 is the newest slice so concatenating in part order keeps newest-first
+        int[][] results = IntStream.range(0, parts).parallel().mapToObj(part -> {
+            int from = Math.max(0, rows - part * chunk);
+            int to = Math.max(0, from - chunk);
+            int[] out = new int[from - to];
+            int found = scan(query, from, to, out, out.length);
+            return Arrays.copyOf(out, found);
+        }).toArray(int[][]::new);
+
+        int total = 0;
+        for (int[] part : results) {
+            total += part.length;
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (int[] part : results) {
+            System.arraycopy(part, 0, merged, offset, part.length);
+            offset += part.length;
+        }
+        return merged;
+    }
+
+    /**
+     * First row whose (created_at, id) is greater than the given position.
+     */
+    private int insertionPoint(long key, int id) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            boolean after = createdKeys[mid] > key || (createdKeys[mid] == key && ids[mid] > id);
+            if (after) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private void set(int row, CarSummary car) {
+        ids[row] = car.getId();
+        deleted[row] = false;
+        userIds[row] = car.getUserId();
+        years[row] = car.getYear();
+        mileages[row] = car.getMileage();
+        brandCodes[row] = brands.encode(car.getBrand());
+        modelCodes[row] = models.encode(car.getModel());
+        colorCodes[row] = colors.encode(car.getColor());
+        priceCents[row] = toCents(car.getPrice(), RoundingMode.HALF_UP);
+        createdKeys[row] = createdKey(car.getCreatedAt());
+        imagePaths[row] = car.getImagePath();
+        excerpts[row] = car.getShortDescription();
+    }
+
+    private void removeRow(int row) {
+        rowById.remove(ids[row]);
+        // The id and created_at stay so the row still sorts correctly until compaction
+        deleted[row] = true;
+        imagePaths[row] = null;
+        excerpts[row] = null;
+        liveRows--;
+    }
+
+    private CarSummary toSummary(int row) {
+        CarSummary car = new CarSummary();
+        car.setId(ids[row]);
+        car.setUserId(userIds[row]);
+        car.setBrand(brands.decode(brandCodes[row]));
+        car.setModel(models.decode(modelCodes[row]));
+        car.setYear(years[row]);
+        car.setPrice(BigDecimal.valueOf(priceCents[row], 2));
+        car.setMileage(mileages[row]);
+        car.setColor(colors.decode(colorCodes[row]));
+        car.setImagePath(imagePaths[row]);
+        car.setShortDescription(excerpts[row]);
+        long key = createdKeys[row];
+        car.setCreatedAt(LocalDateTime.ofEpochSecond(Math.floorDiv(key, 1_000_000_000L),
+                (int) Math.floorMod(key, 1_000_000_000L), ZoneOffset.UTC));
+        return car;
+    }
+
+    private void shiftRight(int position) {
+        int count = rows - position;
+        System.arraycopy(ids, position, ids, position + 1, count);
+        System.arraycopy(deleted, position, deleted, position + 1, count);
+        System.arraycopy(userIds, position, userIds, position + 1, count);
+        System.arraycopy(years, position, years, position + 1, count);
+        System.arraycopy(mileages, position, mileages, position + 1, count);
+        System.arraycopy(brandCodes, position, brandCodes, position + 1, count);
+        System.arraycopy(modelCodes, position, modelCodes, position + 1, count);
+        System.arraycopy(colorCodes, position, colorCodes, position + 1, count);
+        System.arraycopy(priceCents, position, priceCents, position + 1, count);
+        System.arraycopy(createdKeys, position, createdKeys, position + 1, count);
+        System.arraycopy(imagePaths, position, imagePaths, position + 1, count);
+        System.arraycopy(excerpts, position, excerpts, position + 1, count);
+        for (int row = position + 1; row <= rows; row++) {
+            if (!deleted[row]) {
+                rowById.put(ids[row], row);
+            }
+        }
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int row = 0; row < rows; row++) {
+            if (deleted[row]) {
+                continue;
+            }
+            if (target != row) {
+                ids[target] = ids[row];
+                userIds[target] = userIds[row];
+                years[target] = years[row];
+                mileages[target] = mileages[row];
+                brandCodes[target] = brandCodes[row];
+                modelCodes[target] = modelCodes[row];
+                colorCodes[target] = colorCodes[row];
+                priceCents[target] = priceCents[row];
+                createdKeys[target] = createdKeys[row];
+                imagePaths[target] = imagePaths[row];
+                excerpts[target] = excerpts[row];
+                rowById.put(ids[target], target);
+            }
+            target++;
+        }
+        Arrays.fill(deleted, 0, target, false);
+        Arrays.fill(imagePaths, target, rows, null);
+        Arrays.fill(excerpts, target, rows, null);
+        rows = target;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(needed, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        deleted = Arrays.copyOf(deleted, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        years = Arrays.copyOf(years, capacity);
+        mileages = Arrays.copyOf(mileages, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        modelCodes = Arrays.copyOf(modelCodes, capacity);
+        colorCodes = Arrays.copyOf(colorCodes, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        createdKeys = Arrays.copyOf(createdKeys, capacity);
+        imagePaths = Arrays.copyOf(imagePaths, capacity);
+        excerpts = Arrays.copyOf(excerpts, capacity);
+    }
+
+    // Filter bounds are typed by users, so amounts outside the long range are clamped rather than rejected
+    private static long toCents(BigDecimal amount, RoundingMode rounding) {
+        if (amount.compareTo(MAX_AMOUNT) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (amount.compareTo(MIN_AMOUNT) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return amount.setScale(2, rounding).unscaledValue().longValue();
+    }
+
+    static long createdKey(LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return Long.MIN_VALUE;
+        }
+        return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + createdAt.getNano();
+    }
+}
@@ -0,0 +1,591 @@
+package com.carselling.database;
+
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.models.Page;
+import com.carselling.utils.ConfigLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of the catalog in a memory-mapped file, so the home grid can show listings at
+ * startup before the database answers. The snapshot remembers the change-feed watermark it
+ * was current at; the grid shows the snapshot's first page and then catches up through
+ * {@link CarRepository#getChangesSince} from that watermark.
+ *
+ * File layout, all big-endian:
+ * <pre>
+ *   header   64 bytes: magic, version, slots used, slot capacity, watermark, string bytes used,
+ *            source database fingerprint, first-page length
+ *   page     128 x 4 bytes: slots of the newest records, newest first
+ *   records  capacity x 56 bytes: id, user id, year, mileage, price cents, created_at,
+ *            and offsets into the string section for brand, model, color, image path, excerpt
+ *   strings  [int byte length][UTF-8 bytes] entries, appended; each distinct string once
+ * </pre>
+ * A record with id 0 is a free slot. Deltas are written in place: changed records are
+ * overwritten or appended, removed ones are freed, and new strings are appended. The file is
+ * rewritten in full only when the record section is full or the string section is mostly
+ * unreferenced. The header's watermark is written last and cleared while a full rewrite is in
+ * progress, so an interrupted write leaves a snapshot that is ignored and rebuilt.
+ *
+ * Each database gets its own file, named after a fingerprint of {@code db.url} unless
+ * {@code catalog.snapshot.file} is set; the fingerprint is also kept in the header, and a file
+ * written for another database is rebuilt rather than shown. Writes keep the newest records'
+ * slots in the header, so the first page is read without scanning the records.
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x43534E50; // "CSNP"
+    private static final int VERSION = 2;
+    private static final long NO_WATERMARK = Long.MIN_VALUE;
+    private static final int NO_STRING = -1;
+
+    private static final int PAGE_SLOTS = 128;
+    private static final int HEADER_SIZE = 64 + PAGE_SLOTS * 4;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_SLOTS = 8;
+    private static final int H_CAPACITY = 12;
+    private static final int H_WATERMARK = 16;
+    private static final int H_STRING_BYTES = 24;
+    private static final int H_SOURCE = 32;
+    private static final int H_PAGE_LENGTH = 40;
+    private static final int H_PAGE = 64;
+
+    private static final int RECORD_SIZE = 56;
+    private static final int R_ID = 0;
+    private static final int R_USER_ID = 4;
+    private static final int R_YEAR = 8;
+    private static final int R_MILEAGE = 12;
+    private static final int R_PRICE_CENTS = 16;
+    private static final int R_CREATED_AT = 24;
+    private static final int R_BRAND = 32;
+    private static final int R_MODEL = 36;
+    private static final int R_COLOR = 40;
+    private static final int R_IMAGE_PATH = 44;
+    private static final int R_EXCERPT = 48;
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MIN_STRING_BYTES = 64 * 1024;
+
+    private static final CatalogSnapshot SHARED =
+            ConfigLoader.getBooleanProperty("catalog.snapshot.enabled", true)
+                    && Repositories.getBackend() == Repositories.Backend.MYSQL
+                    ? forDatabase(ConfigLoader.getProperty("db.url", ""))
+                    : null;
+
+    private final Path path;
+    private final long source;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private boolean opened = false;
+    // Slot lookups are only needed for writes, so reads never wait for them
+    private boolean indexed = false;
+
+    private int slots;
+    private int capacity;
+    private long stringBytes;
+    // Rewrite once the string section grows past this; most of it is then stale excerpts
+    private long compactAtStringBytes;
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+    // Only built when something is written
+    private Map<String, Integer> stringOffsets = null;
+
+    /**
+     * A snapshot in {@code path} holding the catalog of the database at {@code sourceUrl}.
+     */
+    public CatalogSnapshot(Path path, String sourceUrl) {
+        this.path = path;
+        this.source = fingerprint(sourceUrl);
+    }
+
+    private static CatalogSnapshot forDatabase(String url) {
+        String file = ConfigLoader.getProperty("catalog.snapshot.file",
+                String.format("catalog-%016x.snapshot", fingerprint(url)));
+        return new CatalogSnapshot(Paths.get(file), url);
+    }
+
+    /**
+     * The application's snapshot, or null when disabled ({@code catalog.snapshot.enabled})
+     * or when running on the in-memory backend.
+     */
+    public static CatalogSnapshot shared() {
+        return SHARED;
+    }
+
+    /**
+     * The watermark the snapshot is current at, or null if there is no usable snapshot.
+     */
+    public synchronized LocalDateTime getWatermark() {
+        if (!ensureOpen()) {
+            return null;
+        }
+        long watermark = map.getLong(H_WATERMARK);
+        return watermark == NO_WATERMARK ? null : fromKey(watermark);
+    }
+
+    /**
+     * The newest listings, in catalog order, with a cursor for loading the rest from the
+     * database. Reads only the header's page and the records it names, so it is cheap enough
+     * for the FX thread. At most 128 listings come from the snapshot. Returns an empty page
+     * if there is no usable snapshot.
+     */
+    public synchronized Page<CarSummary> firstPage(int pageSize) {
+        if (!ensureOpen() || map.getLong(H_WATERMARK) == NO_WATERMARK) {
+            return Page.empty();
+        }
+        try {
+            return readFirstPage(pageSize);
+        } catch (RuntimeException e) {
+            System.err.println("Ignoring unreadable catalog snapshot " + path + ": " + e);
+            return Page.empty();
+        }
+    }
+
+    private Page<CarSummary> readFirstPage(int pageSize) {
+        int length = map.getInt(H_PAGE_LENGTH);
+        int count = Math.min(pageSize, length);
+        List<CarSummary> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = map.getInt(H_PAGE + i * 4);
+            if (slot < 0 || slot >= slots) {
+                throw new IllegalStateException("page slot " + slot + " out of range");
+            }
+            cars.add(readRecord(slot));
+        }
+        String nextCursor = null;
+        // A full page list may have more records behind it
+        if (count > 0 && (length > count || length == PAGE_SLOTS)) {
+            CarSummary last = cars.get(count - 1);
+            nextCursor = new PageCursor(Timestamp.valueOf(last.getCreatedAt()), last.getId()).encode();
+        }
+        return new Page<>(cars, nextCursor);
+    }
+
+    /**
+     * Stores the slots of the newest records in the header, newest first. Scans every record,
+     * so it runs with the writes, off the FX thread.
+     */
+    private void writePage() {
+        // Top PAGE_SLOTS by insertion; appends are mostly already in order
+        int[] best = new int[PAGE_SLOTS];
+        int found = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (map.getInt(recordOffset(slot) + R_ID) == 0) {
+                continue;
+            }
+            if (found == best.length && !isNewer(slot, best[found - 1])) {
+                continue;
+            }
+            int position = Math.min(found, best.length - 1);
+            while (position > 0 && isNewer(slot, best[position - 1])) {
+                best[position] = best[position - 1];
+                position--;
+            }
+            best[position] = slot;
+            found = Math.min(found + 1, best.length);
+        }
+        for (int i = 0; i < found; i++) {
+            map.putInt(H_PAGE + i * 4, best[i]);
+        }
+        map.putInt(H_PAGE_LENGTH, found);
+    }
+
+    /**
+     * Writes a delta fetched by someone else into the snapshot, if it starts at or before the
+     * snapshot's watermark so that no change in between is skipped. Returns false when the
+     * delta could not be used and the snapshot needs a {@link #sync}.
+     */
+    public synchronized boolean offer(LocalDateTime since, CarDelta delta) {
+        LocalDateTime watermark = getWatermark();
+        if (since == null || watermark == null || delta.isReloadRequired() || since.isAfter(watermark)) {
+            return false;
+        }
+        if (!delta.getWatermark().isAfter(watermark)) {
+            return true;
+        }
+        return write(() -> applyDelta(delta));
+    }
+
+    /**
+     * Brings the snapshot up to date from the repository: a delta from its watermark, or a
+     * full rebuild when there is no snapshot yet or it is too old for the change feed.
+     */
+    public void sync(CarRepository repository) {
+        LocalDateTime since = getWatermark();
+        if (since != null) {
+            CarDelta delta = repository.getChangesSince(since);
+            if (!delta.isReloadRequired()) {
+                offer(since, delta);
+                return;
+            }
+        }
+        rebuild(repository);
+    }
+
+    private void rebuild(CarRepository repository) {
+        long start = System.nanoTime();
+        try {
+            // Take the watermark first; changes during the read are replayed by the next delta
+            LocalDateTime watermark = repository.getChangesSince(null).getWatermark();
+            if (watermark == null) {
+                return;
+            }
+            List<CarSummary> cars = new ArrayList<>();
+            repository.streamCars(CarFilter.none(), car -> cars.add(InMemoryDatabase.toSummary(car)), () -> false);
+
+            synchronized (this) {
+                if (write(() -> rewrite(cars, cars.size(), watermark))) {
+                    System.out.printf("Catalog snapshot rebuilt with %,d cars in %d ms.%n",
+                            cars.size(), (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Could not rebuild the catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWrite {
+        void run() throws IOException;
+    }
+
+    private boolean write(SnapshotWrite write) {
+        try {
+            if (!ensureOpen()) {
+                return false;
+            }
+            ensureIndexed();
+            write.run();
+            map.force();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not write the catalog snapshot " + path + ": " + e.getMessage());
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * Maps the file and checks its header. A missing file gets an empty snapshot with no
+     * watermark; an unreadable one, or one written for another database, is treated the same
+     * way and overwritten by the next rebuild.
+     */
+    private boolean ensureOpen() {
+        if (opened) {
+            return true;
+        }
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < HEADER_SIZE || !loadHeader(channel.map(FileChannel.MapMode.READ_WRITE, 0, size))) {
+                if (size > 0) {
+                    System.err.println("Ignoring catalog snapshot " + path
+                            + ": it is unreadable or belongs to another database; it will be rebuilt.");
+                }
+                layout(MIN_CAPACITY, MIN_STRING_BYTES);
+            }
+            opened = true;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not open the catalog snapshot " + path + ": " + e.getMessage());
+            close();
+            return false;
+        }
+    }
+
+    private boolean loadHeader(MappedByteBuffer candidate) {
+        if (candidate.getInt(H_MAGIC) != MAGIC || candidate.getInt(H_VERSION) != VERSION
+                || candidate.getLong(H_SOURCE) != source) {
+            return false;
+        }
+        int usedSlots = candidate.getInt(H_SLOTS);
+        int slotCapacity = candidate.getInt(H_CAPACITY);
+        long usedStringBytes = candidate.getLong(H_STRING_BYTES);
+        int pageLength = candidate.getInt(H_PAGE_LENGTH);
+        if (usedSlots < 0 || slotCapacity < usedSlots || usedStringBytes < 0
+                || pageLength < 0 || pageLength > PAGE_SLOTS
+                || HEADER_SIZE + (long) slotCapacity * RECORD_SIZE + usedStringBytes > candidate.capacity()) {
+            return false;
+        }
+
+        map = candidate;
+        slots = usedSlots;
+        capacity = slotCapacity;
+        stringBytes = usedStringBytes;
+        compactAtStringBytes = Math.max(MIN_STRING_BYTES, stringBytes * 2);
+        stringOffsets = null;
+        indexed = false;
+        return true;
+    }
+
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        slotById.clear();
+        freeSlots.clear();
+        for (int slot = 0; slot < slots; slot++) {
+            int id = map.getInt(recordOffset(slot) + R_ID);
+            if (id == 0) {
+                freeSlots.add(slot);
+            } else {
+                slotById.put(id, slot);
+            }
+        }
+        indexed = true;
+    }
+
+    /**
+     * Maps an empty file of the given section sizes, with no watermark.
+     */
+    private void layout(int slotCapacity, long stringCapacity) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCapacity * RECORD_SIZE + stringCapacity);
+        map.putInt(H_MAGIC, MAGIC);
+        map.putInt(H_VERSION, VERSION);
+        map.putLong(H_WATERMARK, NO_WATERMARK);
+        map.putInt(H_SLOTS, 0);
+        map.putInt(H_CAPACITY, slotCapacity);
+        map.putLong(H_STRING_BYTES, 0);
+        map.putLong(H_SOURCE, source);
+        map.putInt(H_PAGE_LENGTH, 0);
+
+        slots = 0;
+        capacity = slotCapacity;
+        stringBytes = 0;
+        compactAtStringBytes = Math.max(MIN_STRING_BYTES, stringCapacity);
+        slotById.clear();
+        freeSlots.clear();
+        indexed = true;
+        stringOffsets = new HashMap<>();
+    }
+
+    private void applyDelta(CarDelta delta) throws IOException {
+        int needed = slots - freeSlots.size() + delta.getChanged().size();
+        if (needed > capacity || stringBytes > compactAtStringBytes) {
+            List<CarSummary> cars = new ArrayList<>(needed);
+            for (int slot = 0; slot < slots; slot++) {
+                if (map.getInt(recordOffset(slot) + R_ID) != 0) {
+                    cars.add(readRecord(slot));
+                }
+            }
+            rewrite(cars, needed, fromKey(map.getLong(H_WATERMARK)));
+        }
+
+        for (int id : delta.getRemovedIds()) {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                map.putInt(recordOffset(slot) + R_ID, 0);
+                freeSlots.add(slot);
+            }
+        }
+        for (CarSummary car : delta.getChanged()) {
+            Integer slot = slotById.get(car.getId());
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? slots++ : freeSlots.remove(freeSlots.size() - 1);
+                slotById.put(car.getId(), slot);
+            }
+            writeRecord(slot, car);
+        }
+        map.putInt(H_SLOTS, slots);
+        map.putLong(H_STRING_BYTES, stringBytes);
+        writePage();
+        map.putLong(H_WATERMARK, toKey(delta.getWatermark()));
+    }
+
+    /**
+     * Replaces the contents with {@code cars}, sized for {@code expectedRecords} with room to grow.
+     */
+    private void rewrite(List<CarSummary> cars, int expectedRecords, LocalDateTime watermark) throws IOException {
+        if (map != null) {
+            // Anything interrupted from here on leaves a snapshot that is ignored
+            map.putLong(H_WATERMARK, NO_WATERMARK);
+            map.force();
+        }
+        int slotCapacity = Math.max(MIN_CAPACITY, expectedRecords + expectedRecords / 2);
+        long estimatedStrings = Math.max(MIN_STRING_BYTES, cars.size() * 256L);
+        layout(slotCapacity, estimatedStrings);
+
+        for (CarSummary car : cars) {
+            int slot = slots++;
+            slotById.put(car.getId(), slot);
+            writeRecord(slot, car);
+        }
+        compactAtStringBytes = Math.max(MIN_STRING_BYTES, stringBytes * 2);
+        map.putInt(H_SLOTS, slots);
+        map.putLong(H_STRING_BYTES, stringBytes);
+        writePage();
+        map.putLong(H_WATERMARK, toKey(watermark));
+    }
+
+    private void writeRecord(int slot, CarSummary car) throws IOException {
+        // Strings first, since appending one may remap the file
+        int brand = stringRef(car.getBrand());
+        int model = stringRef(car.getModel());
+        int color = stringRef(car.getColor());
+        int imagePath = stringRef(car.getImagePath());
+        int excerpt = stringRef(car.getShortDescription());
+
+        int offset = recordOffset(slot);
+        map.putInt(offset + R_USER_ID, car.getUserId());
+        map.putInt(offset + R_YEAR, car.getYear());
+        map.putInt(offset + R_MILEAGE, car.getMileage());
+        map.putLong(offset + R_PRICE_CENTS, car.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        map.putLong(offset + R_CREATED_AT, toKey(car.getCreatedAt()));
+        map.putInt(offset + R_BRAND, brand);
+        map.putInt(offset + R_MODEL, model);
+        map.putInt(offset + R_COLOR, color);
+        map.putInt(offset + R_IMAGE_PATH, imagePath);
+        map.putInt(offset + R_EXCERPT, excerpt);
+        // The id last, so a half-written record is still a free slot
+        map.putInt(offset + R_ID, car.getId());
+    }
+
+    private CarSummary readRecord(int slot) {
+        int offset = recordOffset(slot);
+        CarSummary car = new CarSummary();
+        car.setId(map.getInt(offset + R_ID));
+        car.setUserId(map.getInt(offset + R_USER_ID));
+        car.setYear(map.getInt(offset + R_YEAR));
+        car.setMileage(map.getInt(offset + R_MILEAGE));
+        car.setPrice(BigDecimal.valueOf(map.getLong(offset + R_PRICE_CENTS), 2));
+        car.setCreatedAt(fromKey(map.getLong(offset + R_CREATED_AT)));
+        car.setBrand(readString(map.getInt(offset + R_BRAND)));
+        car.setModel(readString(map.getInt(offset + R_MODEL)));
+        car.setColor(readString(map.getInt(offset + R_COLOR)));
+        car.setImagePath(readString(map.getInt(offset + R_IMAGE_PATH)));
+        car.setShortDescription(readString(map.getInt(offset + R_EXCERPT)));
+        return car;
+    }
+
+    /**
+     * Offset of {@code value} in the string section, appending it if it is not there yet.
+     */
+    private int stringRef(String value) throws IOException {
+        if (value == null) {
+            return NO_STRING;
+        }
+        if (stringOffsets == null) {
+            indexStrings();
+        }
+        Integer existing = stringOffsets.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long needed = stringBytes + 4 + bytes.length;
+        if (needed > Integer.MAX_VALUE) {
+            throw new IOException("catalog snapshot string section is full");
+        }
+        long stringsStart = stringsStart();
+        if (stringsStart + needed > map.capacity()) {
+            long grown = Math.max(needed, stringBytes * 2);
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, stringsStart + grown);
+        }
+
+        int offset = (int) stringBytes;
+        int position = (int) (stringsStart + offset);
+        map.putInt(position, bytes.length);
+        // A positioned duplicate rather than absolute bulk put, which needs Java 16
+        ByteBuffer target = map.duplicate();
+        target.position(position + 4);
+        target.put(bytes);
+        stringBytes = needed;
+        stringOffsets.put(value, offset);
+        return offset;
+    }
+
+    private void indexStrings() {
+        stringOffsets = new HashMap<>();
+        long offset = 0;
+        while (offset < stringBytes) {
+            int length = map.getInt((int) (stringsStart() + offset));
+            stringOffsets.putIfAbsent(readString((int) offset), (int) offset);
+            offset += 4 + length;
+        }
+    }
+
+    private String readString(int offset) {
+        if (offset == NO_STRING) {
+            return null;
+        }
+        int position = (int) (stringsStart() + offset);
+        byte[] bytes = new byte[map.getInt(position)];
+        ByteBuffer source = map.duplicate();
+        source.position(position + 4);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean isNewer(int slot, int other) {
+        long created = map.getLong(recordOffset(slot) + R_CREATED_AT);
+        long otherCreated = map.getLong(recordOffset(other) + R_CREATED_AT);
+        return created > otherCreated || (created == otherCreated
+                && map.getInt(recordOffset(slot) + R_ID) > map.getInt(recordOffset(other) + R_ID));
+    }
+
+    private int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private long stringsStart() {
+        return HEADER_SIZE + (long) capacity * RECORD_SIZE;
+    }
+
+    private void close() {
+        opened = false;
+        indexed = false;
+        map = null;
+        stringOffsets = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+            channel = null;
+        }
+    }
+
+    // First 8 bytes of the URL's SHA-256; only compared, never reversed
+    private static long fingerprint(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Timestamps as nanoseconds since the epoch, read as UTC, like CatalogIndex
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime fromKey(long key) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(key, 1_000_000_000L), (int) Math.floorMod(key, 1_000_000_000L),
+                ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,409 @@
+package com.carselling.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ *
+ * Callers get a proxy from {@link #borrow()}; calling {@code close()} on it hands the
+ * physical connection back to the pool instead of closing the socket. Before it is reused,
+ * an open transaction is rolled back and the auto-commit, read-only, isolation and catalog
+ * settings it had when it was opened are restored.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionAvailable = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+
+    private int totalConnections = 0;
+    private boolean shutdown = false;
+
+    public ConnectionPool(String url, Properties connectionProperties, int minSize, int maxSize,
+                          long idleTimeoutMs, long borrowTimeoutMs, int validationTimeoutSeconds,
+                          long leakDetectionThresholdMs) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool max size must be at least 1");
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.maxSize = maxSize;
+        this.minSize = Math.max(0, Math.min(minSize, maxSize));
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMs, 30_000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured borrow timeout when the pool is exhausted.
+     */
+    public Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean mayCreate = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Connection pool has been shut down");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        mayCreate = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out after " + borrowTimeoutMs
+                                + " ms waiting for a database connection (pool size " + maxSize + ")");
+                    }
+                    try {
+                        connectionAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (mayCreate) {
+                try {
+                    candidate = open();
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+                return checkOut(candidate);
+            }
+
+            // Validate outside the lock so a slow ping does not block other borrowers
+            if (isUsable(candidate)) {
+                return checkOut(candidate);
+            }
+            discard(candidate);
+        }
+    }
+
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (PooledConnection pooled : idle) {
+                closeQuietly(pooled.physical);
+                totalConnections--;
+            }
+            idle.clear();
+            connectionAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+    }
+
+    public int getTotalConnections() {
+        lock.lock();
+        try {
+            return totalConnections;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleConnections() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        try {
+            return new PooledConnection(physical);
+        } catch (SQLException e) {
+            closeQuietly(physical);
+            throw e;
+        }
+    }
+
+    private Connection checkOut(PooledConnection pooled) {
+        pooled.borrowedAt = System.currentTimeMillis();
+        pooled.leakReported = false;
+        pooled.borrowSite = leakDetectionThresholdMs > 0
+                ? new Exception("Connection borrowed by thread " + Thread.currentThread().getName())
+                : null;
+        borrowed.add(pooled);
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new LeaseHandler(pooled));
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        borrowed.remove(pooled);
+
+        boolean healthy;
+        try {
+            healthy = !pooled.physical.isClosed() && pooled.resetSession();
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        if (!healthy) {
+            discard(pooled);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                closeQuietly(pooled.physical);
+                totalConnections--;
+                return;
+            }
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.addFirst(pooled);
+            connectionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        if (pooled != null) {
+            closeQuietly(pooled.physical);
+        }
+        lock.lock();
+        try {
+            totalConnections--;
+            connectionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Evict connections that sat idle for too long, but never shrink below the minimum
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections > minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt >= idleTimeoutMs) {
+                    it.remove();
+                    closeQuietly(pooled.physical);
+                    totalConnections--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Top the pool back up to the minimum size
+        while (true) {
+            lock.lock();
+            try {
+                if (shutdown || totalConnections >= minSize) {
+                    break;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PooledConnection pooled = open();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                lock.lock();
+                try {
+                    idle.addLast(pooled);
+                    connectionAvailable.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                discard(null);
+                System.err.println("Connection pool could not open a connection: " + e.getMessage());
+                break;
+            }
+        }
+
+        if (leakDetectionThresholdMs > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt >= leakDetectionThresholdMs) {
+                    pooled.leakReported = true;
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pooled.borrowedAt) + " ms without being closed.");
+                    if (pooled.borrowSite != null) {
+                        pooled.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Connection physical;
+        // Session settings as opened, restored on every return
+        private final boolean defaultAutoCommit;
+        private final boolean defaultReadOnly;
+        private final int defaultIsolation;
+        private final String defaultCatalog;
+        // Isolation and catalog may cost a round trip to read, so they are only reset once set
+        private volatile boolean isolationChanged;
+        private volatile boolean catalogChanged;
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt;
+        private volatile boolean leakReported;
+        private volatile Exception borrowSite;
+
+        private PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultAutoCommit = physical.getAutoCommit();
+            this.defaultReadOnly = physical.isReadOnly();
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.defaultCatalog = physical.getCatalog();
+        }
+
+        /**
+         * Rolls back whatever the borrower left open and puts the session settings back.
+         * Returns false if the connection cannot be brought back to its defaults.
+         */
+        private boolean resetSession() throws SQLException {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+            }
+            if (physical.getAutoCommit() != defaultAutoCommit) {
+                physical.setAutoCommit(defaultAutoCommit);
+            }
+            if (physical.isReadOnly() != defaultReadOnly) {
+                physical.setReadOnly(defaultReadOnly);
+            }
+            if (isolationChanged) {
+                physical.setTransactionIsolation(defaultIsolation);
+                isolationChanged = false;
+            }
+            if (catalogChanged) {
+                if (defaultCatalog == null) {
+                    return false;
+                }
+                physical.setCatalog(defaultCatalog);
+                catalogChanged = false;
+            }
+            return true;
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned = false;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (name.equals("setTransactionIsolation")) {
+                pooled.isolationChanged = true;
+            } else if (name.equals("setCatalog")) {
+                pooled.catalogChanged = true;
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
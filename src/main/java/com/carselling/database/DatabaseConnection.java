@@ -3,8 +3,10 @@ package com.carselling.database;
 import com.carselling.utils.ConfigLoader;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 
 public class DatabaseConnection {
 
@@ -12,62 +14,208 @@ public class DatabaseConnection {
     private static String DB_USER = ConfigLoader.getProperty("db.user");
     private static String DB_PASSWORD = ConfigLoader.getProperty("db.password");
 
-    private static Connection connection = null;
+    private static ConnectionPool pool = null;
+    private static volatile ReplicaRouter replicaRouter = null;
+    private static volatile boolean replicasConfigured = true;
 
     private DatabaseConnection() {
         // Private constructor to prevent instantiation
     }
 
-    public static Connection getConnection() {
-        try {
-            // Check if connection is null or closed, then create a new one
-            if (connection == null || connection.isClosed()) {
-                try {
-
-                    Class.forName("com.mysql.cj.jdbc.Driver");
-                    connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                    System.out.println("Database connection established successfully.");
-                } catch (ClassNotFoundException e) {
-                    System.err.println("MySQL JDBC Driver not found.");
-                    e.printStackTrace();
-                    return null;
-                } catch (SQLException e) {
-                    System.err.println("Failed to connect to database.");
-                    e.printStackTrace();
-                    return null;
-                }
+    /**
+     * Borrows a connection from the pool for the named DAO operation (for example
+     * "CarDAO.searchCars"). Statements run on it are recorded in {@link QueryMetrics} under
+     * that name. Callers must close it (ideally in a try-with-resources block) to hand it
+     * back. Returns null if no connection could be obtained.
+     */
+    public static Connection getConnection(String operation) {
+        return getConnection(operation, false);
+    }
+
+    /**
+     * Like {@link #getConnection(String)}; with {@code redactParameters} set, bound values
+     * (such as password hashes) are never written to the slow-query log.
+     */
+    public static Connection getConnection(String operation, boolean redactParameters) {
+        if (!QueryMetrics.ENABLED) {
+            return borrowUninstrumented();
+        }
+
+        long start = System.nanoTime();
+        Connection conn = borrowUninstrumented();
+        return instrument(conn, operation, redactParameters, start);
+    }
+
+    /**
+     * Borrows a connection for a read-only DAO operation. When read replicas are configured
+     * (db.replica.urls) the read goes to one of them, unless this process wrote recently, in
+     * which case it stays on the primary so the caller sees its own change. Falls back to the
+     * primary when no replica is available.
+     */
+    public static Connection getReadConnection(String operation) {
+        long start = System.nanoTime();
+        ReplicaRouter router = getReplicaRouter();
+        ReplicaRouter.Replica replica = router == null ? null : router.choose();
+
+        Connection conn = null;
+        if (replica != null) {
+            try {
+                conn = replica.getPool().borrow();
+            } catch (SQLException e) {
+                router.markUnhealthy(replica, e.getMessage());
             }
+        }
+        if (conn == null) {
+            conn = borrowUninstrumented();
+        }
+
+        return QueryMetrics.ENABLED ? instrument(conn, operation, false, start) : conn;
+    }
+
+    /**
+     * Called by DAOs after a write reaches the primary; starts the read-your-writes window.
+     */
+    public static void recordWrite() {
+        ReplicaRouter router = getReplicaRouter();
+        if (router != null) {
+            router.recordWrite();
+        }
+    }
+
+    private static Connection instrument(Connection conn, String operation, boolean redactParameters, long borrowStart) {
+        QueryStats stats = QueryMetrics.forOperation(operation);
+        stats.recordAcquire(System.nanoTime() - borrowStart);
+        return conn == null ? null : InstrumentedConnection.wrap(conn, stats, redactParameters);
+    }
+
+    static Connection borrowUninstrumented() {
+        ConnectionPool activePool = getPool();
+        if (activePool == null) {
+            return null;
+        }
+
+        try {
+            return activePool.borrow();
         } catch (SQLException e) {
-            // If checking isClosed() throws an exception, connection is invalid
-            try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                System.out.println("Database connection re-established successfully.");
-            } catch (ClassNotFoundException | SQLException ex) {
-                System.err.println("Failed to reconnect to database.");
-                ex.printStackTrace();
+            System.err.println("Failed to obtain database connection: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            if (!loadDriver()) {
                 return null;
             }
+
+            pool = new ConnectionPool(
+                    DB_URL,
+                    connectionProperties(DB_USER, DB_PASSWORD),
+                    ConfigLoader.getIntProperty("db.pool.minSize", 2),
+                    ConfigLoader.getIntProperty("db.pool.maxSize", 10),
+                    ConfigLoader.getLongProperty("db.pool.idleTimeoutMs", 300_000L),
+                    ConfigLoader.getLongProperty("db.pool.borrowTimeoutMs", 10_000L),
+                    ConfigLoader.getIntProperty("db.pool.validationTimeoutSeconds", 2),
+                    ConfigLoader.getLongProperty("db.pool.leakDetectionThresholdMs", 60_000L));
+            System.out.println("Database connection pool initialized.");
         }
-        return connection;
+        return pool;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                System.out.println("Database connection closed.");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection.");
-                e.printStackTrace();
+    private static ReplicaRouter getReplicaRouter() {
+        // Called on every read and write; only take the lock until routing is settled
+        ReplicaRouter router = replicaRouter;
+        if (router != null || !replicasConfigured) {
+            return router;
+        }
+        return initReplicaRouter();
+    }
+
+    private static synchronized ReplicaRouter initReplicaRouter() {
+        if (replicaRouter == null && replicasConfigured) {
+            List<String> urls = new ArrayList<>();
+            for (String url : ConfigLoader.getProperty("db.replica.urls", "").split(",")) {
+                if (!url.trim().isEmpty()) {
+                    urls.add(url.trim());
+                }
+            }
+            if (urls.isEmpty() || !loadDriver()) {
+                replicasConfigured = false;
+                return null;
             }
+
+            Properties props = connectionProperties(
+                    ConfigLoader.getProperty("db.replica.user", DB_USER),
+                    ConfigLoader.getProperty("db.replica.password", DB_PASSWORD));
+            List<ConnectionPool> pools = new ArrayList<>();
+            for (String url : urls) {
+                pools.add(new ConnectionPool(
+                        url,
+                        props,
+                        ConfigLoader.getIntProperty("db.replica.pool.minSize", 1),
+                        ConfigLoader.getIntProperty("db.replica.pool.maxSize", ConfigLoader.getIntProperty("db.pool.maxSize", 10)),
+                        ConfigLoader.getLongProperty("db.pool.idleTimeoutMs", 300_000L),
+                        // Fail over to the primary quickly instead of waiting on a sick replica
+                        ConfigLoader.getLongProperty("db.replica.borrowTimeoutMs", 1_000L),
+                        ConfigLoader.getIntProperty("db.pool.validationTimeoutSeconds", 2),
+                        ConfigLoader.getLongProperty("db.pool.leakDetectionThresholdMs", 60_000L)));
+            }
+
+            replicaRouter = new ReplicaRouter(
+                    urls,
+                    pools,
+                    ReplicaRouter.Balancing.parse(ConfigLoader.getProperty("db.replica.balancing", "round_robin")),
+                    ConfigLoader.getLongProperty("db.replica.readYourWritesMs", 5_000L),
+                    ConfigLoader.getLongProperty("db.replica.probeIntervalMs", 5_000L));
+            System.out.println("Read replica routing initialized with " + urls.size() + " replica(s).");
         }
+        return replicaRouter;
     }
 
-    public static void testConnection() {
+    /**
+     * Loads the MySQL driver class; the first call pays for loading Connector/J, so startup
+     * runs it in the background ahead of the first connection.
+     */
+    public static boolean loadDriver() {
         try {
-            Connection conn = getConnection();
+            Class.forName("com.mysql.cj.jdbc.Driver");
+            return true;
+        } catch (ClassNotFoundException e) {
+            System.err.println("MySQL JDBC Driver not found.");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static Properties connectionProperties(String user, String password) {
+        Properties props = new Properties();
+        if (user != null) {
+            props.setProperty("user", user);
+        }
+        if (password != null) {
+            props.setProperty("password", password);
+        }
+        // Lets the driver collapse JDBC batches into multi-row INSERTs
+        props.setProperty("rewriteBatchedStatements",
+                String.valueOf(ConfigLoader.getBooleanProperty("db.rewriteBatchedStatements", true)));
+        return props;
+    }
+
+    public static synchronized void closeConnection() {
+        if (replicaRouter != null) {
+            replicaRouter.shutdown();
+            replicaRouter = null;
+            replicasConfigured = true;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            System.out.println("Database connection pool closed.");
+        }
+    }
+
+    public static void testConnection() {
+        try (Connection conn = getConnection("DatabaseConnection.testConnection")) {
             if (conn != null && !conn.isClosed()) {
                 System.out.println("Database connection test successful.");
             }
@@ -0,0 +1,73 @@
+package com.carselling.database;
+
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarFilter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived LRU cache of facet counts keyed by filter. Every car write clears it; a
+ * generation counter keeps a query that started before the write from caching its
+ * now-stale counts afterwards. Thread-safe.
+ */
+public class FacetCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<CarFilter, Entry> entries;
+    private long generation = 0;
+
+    public FacetCache(int maxEntries, long ttlSeconds) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CarFilter, FacetCache.Entry> eldest) {
+                return size() > FacetCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized CarFacets get(CarFilter filter) {
+        Entry entry = entries.get(filter);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(filter);
+            return null;
+        }
+        return entry.facets;
+    }
+
+    /**
+     * Generation to pass to {@link #put}; read it before running the query.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(CarFilter filter, CarFacets facets, long queriedAtGeneration) {
+        if (maxEntries == 0 || queriedAtGeneration != generation) {
+            return;
+        }
+        entries.put(filter, new Entry(facets, System.nanoTime()));
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private final CarFacets facets;
+        private final long loadedAt;
+
+        private Entry(CarFacets facets, long loadedAt) {
+            this.facets = facets;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.models.Page;
+import com.carselling.utils.ConfigLoader;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Embedded {@link CarRepository} that keeps listings in process memory. Filters behave like
+ * the MySQL queries: brand and model match case-insensitive substrings, and full-text search
+ * scores whole-word matches in brand, model and description.
+ */
+public class InMemoryCarRepository implements CarRepository {
+
+    private final InMemoryDatabase db = InMemoryDatabase.INSTANCE;
+
+    @Override
+    public boolean createCar(Car car) {
+        synchronized (db) {
+            String problem = rejectReason(car);
+            if (problem != null) {
+                System.err.println("Error creating car: " + problem);
+                return false;
+            }
+            insert(car);
+            return true;
+        }
+    }
+
+    @Override
+    public BatchInsertResult createCars(List<Car> cars) {
+        return createCars(cars, ConfigLoader.getIntProperty("db.batch.chunkSize", 500));
+    }
+
+    @Override
+    public BatchInsertResult createCars(List<Car> cars, int chunkSize) {
+        BatchInsertResult result = new BatchInsertResult();
+        synchronized (db) {
+            for (int i = 0; i < cars.size(); i++) {
+                Car car = cars.get(i);
+                String problem = rejectReason(car);
+                if (problem != null) {
+                    result.addFailure(i, car, problem);
+                } else {
+                    insert(car);
+                    result.addInserted(1);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Mirrors the NOT NULL and foreign key constraints of the cars table
+    private String rejectReason(Car car) {
+        if (car.getBrand() == null || car.getModel() == null || car.getPrice() == null) {
+            return "brand, model and price are required";
+        }
+        if (!db.users.containsKey(car.getUserId())) {
+            return "user " + car.getUserId() + " does not exist";
+        }
+        return null;
+    }
+
+    private void insert(Car car) {
+        car.setId(db.nextCarId());
+        car.setCreatedAt(InMemoryDatabase.now());
+        db.cars.put(car.getId(), InMemoryDatabase.copy(car));
+        db.carUpdatedAt.put(car.getId(), db.stampChange());
+    }
+
+    @Override
+    public boolean updateCar(Car car) {
+        synchronized (db) {
+            Car stored = db.cars.get(car.getId());
+            if (stored == null || stored.getUserId() != car.getUserId()) {
+                return false;
+            }
+            Car updated = InMemoryDatabase.copy(car);
+            updated.setCreatedAt(stored.getCreatedAt());
+            db.cars.put(car.getId(), updated);
+            db.carUpdatedAt.put(car.getId(), db.stampChange());
+            return true;
+        }
+    }
+
+    @Override
+    public boolean deleteCar(int carId, int userId) {
+        synchronized (db) {
+            Car stored = db.cars.get(carId);
+            if (stored == null || stored.getUserId() != userId) {
+                return false;
+            }
+            db.cars.remove(carId);
+            db.carUpdatedAt.remove(carId);
+            db.tombstones.put(carId, db.stampChange());
+            // ON DELETE CASCADE
+            for (LinkedHashSet<Integer> carIds : db.watchlists.values()) {
+                carIds.remove(carId);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public Car getCarById(int id) {
+        synchronized (db) {
+            Car stored = db.cars.get(id);
+            return stored == null ? null : InMemoryDatabase.copy(stored);
+        }
+    }
+
+    @Override
+    public List<Car> getAllCars() {
+        return matching(CarFilter.none());
+    }
+
+    @Override
+    public List<CarSummary> getCarsByUserId(int userId) {
+        List<CarSummary> cars = new ArrayList<>();
+        synchronized (db) {
+            for (Car car : db.cars.descendingMap().values()) {
+                if (car.getUserId() == userId) {
+                    cars.add(InMemoryDatabase.toSummary(car));
+                }
+            }
+        }
+        return cars;
+    }
+
+    @Override
+    public List<Car> searchCars(String brand, String model, Integer minYear, Integer maxYear,
+                                BigDecimal minPrice, BigDecimal maxPrice) {
+        return matching(new CarFilter(brand, model, minYear, maxYear, minPrice, maxPrice));
+    }
+
+    @Override
+    public long streamCars(CarFilter filter, RowCallback<Car> callback, BooleanSupplier cancelled) throws Exception {
+        // Deliver outside the lock so a slow consumer does not block writers
+        long rows = 0;
+        for (Car car : matching(filter)) {
+            if (cancelled.getAsBoolean()) {
+                break;
+            }
+            callback.accept(car);
+            rows++;
+        }
+        return rows;
+    }
+
+    @Override
+    public Page<CarSummary> searchCarsPage(CarFilter filter, String cursor, int pageSize) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<CarSummary> cars = new ArrayList<>(pageSize + 1);
+
+        synchronized (db) {
+            Map<Integer, Car> newestFirst = after == null
+                    ? db.cars.descendingMap()
+                    : db.cars.headMap(after.getId(), false).descendingMap();
+            for (Car car : newestFirst.values()) {
+                if (matches(car, filter)) {
+                    cars.add(InMemoryDatabase.toSummary(car));
+                    if (cars.size() > pageSize) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        String nextCursor = null;
+        if (cars.size() > pageSize) {
+            cars.remove(pageSize);
+            CarSummary last = cars.get(pageSize - 1);
+            nextCursor = new PageCursor(Timestamp.valueOf(last.getCreatedAt()), last.getId()).encode();
+        }
+
+        return new Page<>(cars, nextCursor);
+    }
+
+    @Override
+    public List<CarSummary> searchCarsFullText(String query, TextSearchMode mode, CarFilter filter, int limit) {
+        List<CarSummary> cars = new ArrayList<>();
+        if (query == null || query.trim().isEmpty()) {
+            return cars;
+        }
+
+        TextQuery textQuery = TextQuery.parse(query, mode);
+        List<Scored> scored = new ArrayList<>();
+        synchronized (db) {
+            for (Car car : db.cars.descendingMap().values()) {
+                if (!matches(car, filter)) {
+                    continue;
+                }
+                int score = textQuery.score(car);
+                if (score > 0) {
+                    scored.add(new Scored(car, score));
+                }
+            }
+        }
+
+        // Stable sort keeps newest-first order among equal scores
+        scored.sort(Comparator.comparingInt((Scored s) -> s.score).reversed());
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            cars.add(InMemoryDatabase.toSummary(scored.get(i).car));
+        }
+        return cars;
+    }
+
+    @Override
+    public CarFacets getFacets(CarFilter filter) {
+        CarFacets.Builder builder = new CarFacets.Builder();
+        synchronized (db) {
+            for (Car car : db.cars.values()) {
+                if (matches(car, filter)) {
+                    builder.add(car.getBrand(), car.getYear(), CarFacets.priceBand(car.getPrice()),
+                            CarFacets.band(car.getMileage(), CarFacets.MILEAGE_BANDS), 1);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public CarDelta getChangesSince(LocalDateTime since) {
+        synchronized (db) {
+            LocalDateTime watermark = db.lastChange();
+            if (since == null) {
+                return CarDelta.none(watermark);
+            }
+
+            List<CarSummary> changed = new ArrayList<>();
+            for (Car car : db.cars.descendingMap().values()) {
+                if (db.carUpdatedAt.get(car.getId()).isAfter(since)) {
+                    changed.add(InMemoryDatabase.toSummary(car));
+                }
+            }
+            List<Integer> removed = new ArrayList<>();
+            for (Map.Entry<Integer, LocalDateTime> tombstone : db.tombstones.entrySet()) {
+                if (tombstone.getValue().isAfter(since)) {
+                    removed.add(tombstone.getKey());
+                }
+            }
+            return new CarDelta(changed, removed, watermark, false);
+        }
+    }
+
+    private List<Car> matching(CarFilter filter) {
+        List<Car> cars = new ArrayList<>();
+        synchronized (db) {
+            for (Car car : db.cars.descendingMap().values()) {
+                if (matches(car, filter)) {
+                    cars.add(InMemoryDatabase.copy(car));
+                }
+            }
+        }
+        return cars;
+    }
+
+    private static boolean matches(Car car, CarFilter filter) {
+        return filter.matches(car.getBrand(), car.getModel(), car.getYear(), car.getPrice());
+    }
+
+    private static final class Scored {
+        private final Car car;
+        private final int score;
+
+        private Scored(Car car, int score) {
+            this.car = car;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A parsed full-text query. Natural language mode scores every term; boolean mode also
+     * honours +required and -excluded terms and a trailing * for prefix matches.
+     */
+    private static final class TextQuery {
+        private final List<String> optional = new ArrayList<>();
+        private final List<String> required = new ArrayList<>();
+        private final List<String> excluded = new ArrayList<>();
+
+        static TextQuery parse(String query, TextSearchMode mode) {
+            TextQuery parsed = new TextQuery();
+            for (String token : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (mode == TextSearchMode.BOOLEAN && token.length() > 1 && token.charAt(0) == '+') {
+                    parsed.required.add(token.substring(1));
+                } else if (mode == TextSearchMode.BOOLEAN && token.length() > 1 && token.charAt(0) == '-') {
+                    parsed.excluded.add(token.substring(1));
+                } else if (mode == TextSearchMode.BOOLEAN) {
+                    parsed.optional.add(token);
+                } else {
+                    parsed.optional.add(token.replace("*", ""));
+                }
+            }
+            return parsed;
+        }
+
+        int score(Car car) {
+            String[] words = (car.getBrand() + " " + car.getModel() + " "
+                    + (car.getDescription() != null ? car.getDescription() : ""))
+                    .toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+
+            for (String term : excluded) {
+                if (hits(words, term) > 0) {
+                    return 0;
+                }
+            }
+            int score = 0;
+            for (String term : required) {
+                int hits = hits(words, term);
+                if (hits == 0) {
+                    return 0;
+                }
+                score += hits;
+            }
+            for (String term : optional) {
+                score += hits(words, term);
+            }
+            return score;
+        }
+
+        private static int hits(String[] words, String term) {
+            boolean prefix = term.endsWith("*");
+            String stem = prefix ? term.substring(0, term.length() - 1) : term;
+            if (stem.isEmpty()) {
+                return 0;
+            }
+            int hits = 0;
+            for (String word : words) {
+                if (prefix ? word.startsWith(stem) : word.equals(stem)) {
+                    hits++;
+                }
+            }
+            return hits;
+        }
+    }
+}
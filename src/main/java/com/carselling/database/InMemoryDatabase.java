@@ -0,0 +1,104 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+import com.carselling.models.User;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tables of the embedded backend, shared by the in-memory repositories so that deletes
+ * cascade and the watchlist can join against cars, as the MySQL schema does. Callers
+ * synchronize on the instance; rows are copied in and out so nobody holds a live row.
+ */
+final class InMemoryDatabase {
+
+    static final InMemoryDatabase INSTANCE = new InMemoryDatabase();
+
+    // Ids only grow and created_at is set on insert, so descending id order is catalog order
+    final TreeMap<Integer, Car> cars = new TreeMap<>();
+    final Map<Integer, User> users = new HashMap<>();
+    // car ids per user in the order they were added
+    final Map<Integer, LinkedHashSet<Integer>> watchlists = new HashMap<>();
+    // cars.updated_at and car_tombstones
+    final Map<Integer, LocalDateTime> carUpdatedAt = new HashMap<>();
+    final Map<Integer, LocalDateTime> tombstones = new HashMap<>();
+
+    private int nextCarId = 1;
+    private int nextUserId = 1;
+    private LocalDateTime lastChange = LocalDateTime.MIN;
+
+    private InMemoryDatabase() {
+    }
+
+    int nextCarId() {
+        return nextCarId++;
+    }
+
+    int nextUserId() {
+        return nextUserId++;
+    }
+
+    /**
+     * Time to record a car change at. Strictly increasing, so a delta read under the lock
+     * can use the last stamp as its watermark without an overlap.
+     */
+    LocalDateTime stampChange() {
+        LocalDateTime now = LocalDateTime.now();
+        lastChange = now.isAfter(lastChange) ? now : lastChange.plusNanos(1_000);
+        return lastChange;
+    }
+
+    LocalDateTime lastChange() {
+        return lastChange;
+    }
+
+    /**
+     * Current time at the one-second precision of a MySQL TIMESTAMP column.
+     */
+    static LocalDateTime now() {
+        return LocalDateTime.now().withNano(0);
+    }
+
+    static Car copy(Car car) {
+        Car copy = new Car(car.getUserId(), car.getBrand(), car.getModel(), car.getYear(), car.getPrice(),
+                car.getMileage(), car.getColor(), car.getDescription(), car.getImagePath());
+        copy.setId(car.getId());
+        copy.setCreatedAt(car.getCreatedAt());
+        return copy;
+    }
+
+    static User copy(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getCreatedAt());
+    }
+
+    static CarSummary toSummary(Car car) {
+        CarSummary summary = new CarSummary();
+        summary.setId(car.getId());
+        summary.setUserId(car.getUserId());
+        summary.setBrand(car.getBrand());
+        summary.setModel(car.getModel());
+        summary.setYear(car.getYear());
+        summary.setPrice(car.getPrice());
+        summary.setMileage(car.getMileage());
+        summary.setColor(car.getColor());
+        summary.setShortDescription(excerpt(car.getDescription()));
+        summary.setImagePath(car.getImagePath());
+        summary.setCreatedAt(car.getCreatedAt());
+        return summary;
+    }
+
+    /**
+     * Same rule as the description_excerpt generated column.
+     */
+    static String excerpt(String description) {
+        if (description == null || description.length() <= 100) {
+            return description;
+        }
+        return description.substring(0, 100) + "...";
+    }
+}
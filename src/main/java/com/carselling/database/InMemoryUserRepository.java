@@ -0,0 +1,70 @@
+package com.carselling.database;
+
+import com.carselling.models.User;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Embedded {@link UserRepository}. Usernames and emails are unique and matched
+ * case-insensitively, like the MySQL default collation.
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+    private final InMemoryDatabase db = InMemoryDatabase.INSTANCE;
+
+    @Override
+    public boolean createUser(User user) {
+        synchronized (db) {
+            if (findByUsernameOrEmail(user.getUsername()) != null || findByUsernameOrEmail(user.getEmail()) != null) {
+                return false;
+            }
+            User stored = new User(db.nextUserId(), user.getUsername(), user.getEmail(),
+                    BCrypt.hashpw(user.getPassword(), BCrypt.gensalt()), InMemoryDatabase.now());
+            db.users.put(stored.getId(), stored);
+            return true;
+        }
+    }
+
+    @Override
+    public User authenticateUser(String username, String password) {
+        User user;
+        synchronized (db) {
+            user = findByUsernameOrEmail(username);
+        }
+        // Hash checks are slow; keep them outside the lock
+        if (user != null && BCrypt.checkpw(password, user.getPassword())) {
+            return InMemoryDatabase.copy(user);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean usernameExists(String username) {
+        synchronized (db) {
+            return db.users.values().stream().anyMatch(u -> u.getUsername().equalsIgnoreCase(username));
+        }
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        synchronized (db) {
+            return db.users.values().stream().anyMatch(u -> u.getEmail().equalsIgnoreCase(email));
+        }
+    }
+
+    @Override
+    public User getUserById(int id) {
+        synchronized (db) {
+            User user = db.users.get(id);
+            return user == null ? null : InMemoryDatabase.copy(user);
+        }
+    }
+
+    private User findByUsernameOrEmail(String value) {
+        for (User user : db.users.values()) {
+            if (user.getUsername().equalsIgnoreCase(value) || user.getEmail().equalsIgnoreCase(value)) {
+                return user;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+import com.carselling.utils.IntHashSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Embedded {@link WatchlistRepository}.
+ */
+public class InMemoryWatchlistRepository implements WatchlistRepository {
+
+    private final InMemoryDatabase db = InMemoryDatabase.INSTANCE;
+
+    @Override
+    public boolean addToWatchlist(int userId, int carId) {
+        synchronized (db) {
+            if (!db.users.containsKey(userId) || !db.cars.containsKey(carId)) {
+                return false;
+            }
+            return db.watchlists.computeIfAbsent(userId, id -> new LinkedHashSet<>()).add(carId);
+        }
+    }
+
+    @Override
+    public boolean removeFromWatchlist(int userId, int carId) {
+        synchronized (db) {
+            LinkedHashSet<Integer> carIds = db.watchlists.get(userId);
+            return carIds != null && carIds.remove(carId);
+        }
+    }
+
+    @Override
+    public boolean isInWatchlist(int userId, int carId) {
+        synchronized (db) {
+            LinkedHashSet<Integer> carIds = db.watchlists.get(userId);
+            return carIds != null && carIds.contains(carId);
+        }
+    }
+
+    @Override
+    public IntHashSet getWatchlistCarIds(int userId) {
+        IntHashSet ids = new IntHashSet();
+        synchronized (db) {
+            LinkedHashSet<Integer> carIds = db.watchlists.get(userId);
+            if (carIds != null) {
+                for (int carId : carIds) {
+                    ids.add(carId);
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public List<CarSummary> getWatchlistCars(int userId) {
+        List<CarSummary> cars = new ArrayList<>();
+        synchronized (db) {
+            LinkedHashSet<Integer> carIds = db.watchlists.get(userId);
+            if (carIds == null) {
+                return cars;
+            }
+            for (int carId : carIds) {
+                Car car = db.cars.get(carId);
+                if (car != null) {
+                    cars.add(InMemoryDatabase.toSummary(car));
+                }
+            }
+        }
+        // Most recently added first
+        Collections.reverse(cars);
+        return cars;
+    }
+}
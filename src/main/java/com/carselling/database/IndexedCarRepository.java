@@ -0,0 +1,246 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.models.Page;
+import com.carselling.utils.ConfigLoader;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Answers catalog pages and "My Cars" from a shared {@link CatalogIndex} instead of the
+ * database; everything else, and every write, goes to the wrapped repository. Enabled with
+ * {@code catalog.index.enabled}.
+ *
+ * The index is loaded on first use and kept in sync through the change feed
+ * ({@link CarRepository#getChangesSince}): right after each write made through this class,
+ * and otherwise at most every {@code catalog.index.syncSeconds} so other users' changes
+ * show up too. If loading fails, reads fall through to the wrapped repository.
+ */
+public class IndexedCarRepository implements CarRepository {
+
+    private static final CatalogIndex INDEX = new CatalogIndex(
+            ConfigLoader.getBooleanProperty("catalog.index.parallel", true),
+            ConfigLoader.getIntProperty("catalog.index.parallelThreshold", 200_000));
+    private static final long SYNC_INTERVAL_NANOS =
+            TimeUnit.SECONDS.toNanos(ConfigLoader.getLongProperty("catalog.index.syncSeconds", 5));
+
+    // Guards the load and sync state below
+    private static final Object SYNC_LOCK = new Object();
+    private static boolean loaded = false;
+    private static LocalDateTime watermark = null;
+    private static long lastSyncNanos = 0;
+
+    private final CarRepository base;
+
+    public IndexedCarRepository(CarRepository base) {
+        this.base = base;
+    }
+
+    public static CatalogIndex getIndex() {
+        return INDEX;
+    }
+
+    /**
+     * Loads the index if needed and catches up with changes when the last sync is older
+     * than the sync interval. Returns false if the index cannot be used.
+     */
+    private boolean ensureFresh() {
+        synchronized (SYNC_LOCK) {
+            if (!loaded) {
+                return load();
+            }
+            if (System.nanoTime() - lastSyncNanos > SYNC_INTERVAL_NANOS) {
+                sync();
+            }
+            return true;
+        }
+    }
+
+    private boolean load() {
+        long start = System.nanoTime();
+        try {
+            // Take the watermark first; changes during the load are replayed by the next sync
+            LocalDateTime loadWatermark = base.getChangesSince(null).getWatermark();
+            if (loadWatermark == null) {
+                throw new IllegalStateException("change feed unavailable");
+            }
+            List<CarSummary> cars = new ArrayList<>();
+            base.streamCars(CarFilter.none(), car -> cars.add(InMemoryDatabase.toSummary(car)), () -> false);
+            INDEX.replaceAll(cars);
+
+            watermark = loadWatermark;
+            lastSyncNanos = System.nanoTime();
+            loaded = true;
+            System.out.printf("Catalog index loaded %,d cars in %d ms.%n",
+                    cars.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            System.err.println("Could not load the catalog index, querying the database instead: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void sync() {
+        CarDelta delta = base.getChangesSince(watermark);
+        if (delta.isReloadRequired()) {
+            loaded = false;
+            load();
+            return;
+        }
+        apply(delta);
+        watermark = delta.getWatermark();
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private static void apply(CarDelta delta) {
+        for (CarSummary car : delta.getChanged()) {
+            INDEX.upsert(car);
+        }
+        for (int id : delta.getRemovedIds()) {
+            INDEX.remove(id);
+        }
+    }
+
+    /**
+     * Pulls our own write into the index right away rather than at the next interval.
+     */
+    private void syncAfterWrite() {
+        synchronized (SYNC_LOCK) {
+            if (loaded) {
+                sync();
+            }
+        }
+    }
+
+    @Override
+    public boolean createCar(Car car) {
+        boolean created = base.createCar(car);
+        if (created) {
+            syncAfterWrite();
+        }
+        return created;
+    }
+
+    @Override
+    public BatchInsertResult createCars(List<Car> cars) {
+        BatchInsertResult result = base.createCars(cars);
+        syncAfterWrite();
+        return result;
+    }
+
+    @Override
+    public BatchInsertResult createCars(List<Car> cars, int chunkSize) {
+        BatchInsertResult result = base.createCars(cars, chunkSize);
+        syncAfterWrite();
+        return result;
+    }
+
+    @Override
+    public boolean updateCar(Car car) {
+        boolean updated = base.updateCar(car);
+        if (updated) {
+            syncAfterWrite();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteCar(int carId, int userId) {
+        boolean deleted = base.deleteCar(carId, userId);
+        if (deleted) {
+            INDEX.remove(carId);
+            syncAfterWrite();
+        }
+        return deleted;
+    }
+
+    @Override
+    public Car getCarById(int id) {
+        return base.getCarById(id);
+    }
+
+    @Override
+    public List<Car> getAllCars() {
+        return base.getAllCars();
+    }
+
+    @Override
+    public List<CarSummary> getCarsByUserId(int userId) {
+        if (!ensureFresh()) {
+            return base.getCarsByUserId(userId);
+        }
+        return INDEX.resolve(INDEX.searchAfter(CarFilter.none(), userId, null, 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<Car> searchCars(String brand, String model, Integer minYear, Integer maxYear,
+                                BigDecimal minPrice, BigDecimal maxPrice) {
+        // Needs full descriptions, which the index does not hold
+        return base.searchCars(brand, model, minYear, maxYear, minPrice, maxPrice);
+    }
+
+    @Override
+    public long streamCars(CarFilter filter, RowCallback<Car> callback, BooleanSupplier cancelled) throws Exception {
+        return base.streamCars(filter, callback, cancelled);
+    }
+
+    @Override
+    public Page<CarSummary> searchCarsPage(CarFilter filter, String cursor, int pageSize) {
+        if (!ensureFresh()) {
+            return base.searchCarsPage(filter, cursor, pageSize);
+        }
+
+        PageCursor after = PageCursor.decode(cursor);
+        int[] ids = after == null
+                ? INDEX.searchAfter(filter, 0, null, 0, pageSize + 1)
+                : INDEX.searchAfter(filter, 0, after.getCreatedAt().toLocalDateTime(), after.getId(), pageSize + 1);
+        List<CarSummary> cars = INDEX.resolve(ids);
+
+        String nextCursor = null;
+        if (cars.size() > pageSize) {
+            cars.remove(pageSize);
+            CarSummary last = cars.get(pageSize - 1);
+            nextCursor = new PageCursor(Timestamp.valueOf(last.getCreatedAt()), last.getId()).encode();
+        }
+        return new Page<>(cars, nextCursor);
+    }
+
+    @Override
+    public List<CarSummary> searchCarsFullText(String query, TextSearchMode mode, CarFilter filter, int limit) {
+        return base.searchCarsFullText(query, mode, filter, limit);
+    }
+
+    @Override
+    public CarFacets getFacets(CarFilter filter) {
+        return base.getFacets(filter);
+    }
+
+    @Override
+    public CarDelta getChangesSince(LocalDateTime since) {
+        CarDelta delta = base.getChangesSince(since);
+        if (delta.isReloadRequired() || since == null || delta.getWatermark() == null) {
+            return delta;
+        }
+        synchronized (SYNC_LOCK) {
+            // Only a delta read after the index's last sync, covering everything since it, can
+            // stand in for a sync; an older one could overwrite rows a later sync already stored
+            if (loaded && watermark != null && !since.isAfter(watermark)
+                    && delta.getWatermark().isAfter(watermark)) {
+                apply(delta);
+                watermark = delta.getWatermark();
+                lastSyncNanos = System.nanoTime();
+            }
+        }
+        return delta;
+    }
+}
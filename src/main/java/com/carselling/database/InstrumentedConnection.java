@@ -0,0 +1,272 @@
+package com.carselling.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps a borrowed connection so every statement prepared on it is timed and counted under
+ * one {@link QueryStats}. A query's latency is the time spent in {@code executeQuery} plus the
+ * time spent fetching rows in {@code next()}; time the caller spends mapping rows is excluded.
+ */
+final class InstrumentedConnection {
+
+    private InstrumentedConnection() {
+        // Private constructor to prevent instantiation
+    }
+
+    static Connection wrap(Connection connection, QueryStats stats, boolean redactParameters) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, stats, redactParameters));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final QueryStats stats;
+        private final boolean redactParameters;
+
+        private ConnectionHandler(Connection target, QueryStats stats, boolean redactParameters) {
+            this.target = target;
+            this.stats = stats;
+            this.redactParameters = redactParameters;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof PreparedStatement && method.getName().equals("prepareStatement")) {
+                return wrapStatement((Statement) result, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement && method.getName().equals("createStatement")) {
+                return wrapStatement((Statement) result, Statement.class, null);
+            }
+            return result;
+        }
+
+        private Object wrapStatement(Statement statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql, stats, redactParameters));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private final QueryStats stats;
+        private final boolean redactParameters;
+        private final List<Object> parameters = new ArrayList<>();
+        private int batchSize = 0;
+        private ResultSetHandler openResult = null;
+
+        private StatementHandler(Statement target, String sql, QueryStats stats, boolean redactParameters) {
+            this.target = target;
+            this.sql = sql;
+            this.stats = stats;
+            this.redactParameters = redactParameters;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            // setInt(1, ...), setString(2, ...) and friends; single-argument setters configure the statement
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                return invokeTarget(target, method, args);
+            }
+
+            switch (name) {
+                case "clearParameters":
+                    parameters.clear();
+                    return invokeTarget(target, method, args);
+                case "addBatch":
+                    batchSize++;
+                    return invokeTarget(target, method, args);
+                case "clearBatch":
+                    batchSize = 0;
+                    return invokeTarget(target, method, args);
+                case "executeQuery":
+                    return executeQuery(method, args);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return executeUpdate(method, args);
+                case "close":
+                    finishOpenResult();
+                    return invokeTarget(target, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invokeTarget(target, method, args);
+            }
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private Object executeQuery(Method method, Object[] args) throws Throwable {
+            finishOpenResult();
+            String statementSql = args != null && args.length > 0 ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            ResultSet rs;
+            try {
+                rs = (ResultSet) invokeTarget(target, method, args);
+            } catch (Throwable t) {
+                record(statementSql, System.nanoTime() - start, 0, true, 0);
+                throw t;
+            }
+
+            openResult = new ResultSetHandler(rs, this, statementSql, System.nanoTime() - start);
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    openResult);
+        }
+
+        private Object executeUpdate(Method method, Object[] args) throws Throwable {
+            finishOpenResult();
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            int batch = method.getName().endsWith("Batch") ? batchSize : 0;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable t) {
+                record(statementSql, System.nanoTime() - start, 0, true, batch);
+                throw t;
+            } finally {
+                if (batch > 0) {
+                    batchSize = 0;
+                }
+            }
+            record(statementSql, System.nanoTime() - start, affectedRows(result), false, batch);
+            return result;
+        }
+
+        private long affectedRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return Math.max(0, ((Number) result).longValue());
+            }
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    // Rewritten batches report SUCCESS_NO_INFO (-2) per statement
+                    total += count >= 0 ? count : count == Statement.SUCCESS_NO_INFO ? 1 : 0;
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    total += count >= 0 ? count : count == Statement.SUCCESS_NO_INFO ? 1 : 0;
+                }
+            }
+            return total;
+        }
+
+        private void finishOpenResult() {
+            if (openResult != null) {
+                openResult.finish();
+                openResult = null;
+            }
+        }
+
+        private void record(String statementSql, long nanos, long rows, boolean failed, int batch) {
+            boolean slow = SlowQueryLog.isSlow(nanos);
+            stats.recordStatement(nanos, rows, failed, slow);
+            if (slow) {
+                SlowQueryLog.record(stats.getOperation(), statementSql,
+                        redactParameters ? null : new ArrayList<>(parameters), batch, nanos, rows);
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+        private final String sql;
+        private long nanos;
+        private long rows = 0;
+        private boolean failed = false;
+        private boolean finished = false;
+
+        private ResultSetHandler(ResultSet target, StatementHandler statement, String sql, long executeNanos) {
+            this.target = target;
+            this.statement = statement;
+            this.sql = sql;
+            this.nanos = executeNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    long start = System.nanoTime();
+                    try {
+                        boolean hasRow = target.next();
+                        if (hasRow) {
+                            rows++;
+                        }
+                        return hasRow;
+                    } catch (Throwable t) {
+                        failed = true;
+                        throw t;
+                    } finally {
+                        nanos += System.nanoTime() - start;
+                    }
+                }
+                case "close":
+                    try {
+                        return invokeTarget(target, method, args);
+                    } finally {
+                        finish();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invokeTarget(target, method, args);
+            }
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (statement.openResult == this) {
+                statement.openResult = null;
+            }
+            statement.record(sql, nanos, rows, failed, 0);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.carselling.database;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (created_at DESC, id DESC) catalog ordering, encoded as an
+ * opaque URL-safe token so callers never depend on its contents.
+ */
+final class PageCursor {
+    private final Timestamp createdAt;
+    private final int id;
+
+    PageCursor(Timestamp createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String encode() {
+        String raw = createdAt.getTime() + ":" + createdAt.getNanos() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            Timestamp createdAt = new Timestamp(Long.parseLong(parts[0]));
+            createdAt.setNanos(Integer.parseInt(parts[1]));
+            return new PageCursor(createdAt, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + token, e);
+        }
+    }
+}
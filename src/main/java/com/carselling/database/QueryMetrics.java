@@ -0,0 +1,69 @@
+package com.carselling.database;
+
+import com.carselling.utils.ConfigLoader;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of per-operation {@link QueryStats}. DAOs name their operation when borrowing a
+ * connection ({@link DatabaseConnection#getConnection(String)}); every statement run on that
+ * connection is timed and counted under the name.
+ */
+public final class QueryMetrics {
+
+    static final boolean ENABLED = ConfigLoader.getBooleanProperty("db.metrics.enabled", true);
+
+    private static final ConcurrentHashMap<String, QueryStats> stats = new ConcurrentHashMap<>();
+
+    private QueryMetrics() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static QueryStats forOperation(String operation) {
+        return stats.computeIfAbsent(operation, QueryStats::new);
+    }
+
+    /**
+     * Returns the statistics of every operation seen so far, sorted by name.
+     */
+    public static List<QueryStats> snapshot() {
+        List<QueryStats> all = new ArrayList<>(stats.values());
+        all.sort(Comparator.comparing(QueryStats::getOperation));
+        return all;
+    }
+
+    public static void reset() {
+        stats.clear();
+    }
+
+    /**
+     * Formats a table of all operations; latencies are in milliseconds.
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %8s %6s %6s %10s %9s %9s %9s %9s %11s%n",
+                "operation", "stmts", "errors", "slow", "rows", "p50", "p95", "p99", "max", "acquire p95"));
+        for (QueryStats s : snapshot()) {
+            LatencyHistogram latency = s.getLatency();
+            sb.append(String.format("%-32s %8d %6d %6d %10d %9.2f %9.2f %9.2f %9.2f %11.2f%n",
+                    s.getOperation(),
+                    s.getStatementCount(),
+                    s.getErrorCount(),
+                    s.getSlowCount(),
+                    s.getRowCount(),
+                    millis(latency.getPercentileMicros(50)),
+                    millis(latency.getPercentileMicros(95)),
+                    millis(latency.getPercentileMicros(99)),
+                    millis(latency.getMaxMicros()),
+                    millis(s.getAcquireLatency().getPercentileMicros(95))));
+        }
+        return sb.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
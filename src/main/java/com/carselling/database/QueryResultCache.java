@@ -0,0 +1,172 @@
+package com.carselling.database;
+
+import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * LRU cache of car query results, bounded by an estimate of the heap the cached rows use.
+ *
+ * Writes call {@link #bumpGeneration()} instead of hunting down the entries they affect:
+ * every entry remembers the generation it was queried at and is ignored (and dropped) once
+ * the generation has moved on. Thread-safe; all operations take the cache's monitor.
+ */
+public class QueryResultCache {
+
+    // Rough per-object costs on a 64-bit JVM with compressed oops
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int ROW_OVERHEAD = 120;
+    private static final int STRING_OVERHEAD = 40;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long generation = 0;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public QueryResultCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Generation to pass to {@link #put}; read it before running the query so a write that
+     * lands while the query runs keeps its result out of the cache.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Invalidates every cached result. Stale entries are dropped lazily when read or evicted.
+     */
+    public synchronized void bumpGeneration() {
+        generation++;
+    }
+
+    /**
+     * Returns a copy of the cached rows, or null on a miss. The rows themselves are shared.
+     */
+    public synchronized <T> List<T> get(Object... key) {
+        Key k = new Key(key);
+        Entry entry = entries.get(k);
+        if (entry == null || entry.generation != generation) {
+            if (entry != null) {
+                remove(k);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        @SuppressWarnings("unchecked")
+        List<T> rows = (List<T>) entry.rows;
+        return new ArrayList<>(rows);
+    }
+
+    public synchronized void put(List<?> rows, long queriedAtGeneration, Object... key) {
+        if (queriedAtGeneration != generation) {
+            return;
+        }
+        long size = ENTRY_OVERHEAD + estimateBytes(rows);
+        // One huge result should not flush everything else
+        if (size > maxBytes / 4) {
+            return;
+        }
+
+        Key k = new Key(key);
+        remove(k);
+        entries.put(k, new Entry(new ArrayList<>(rows), generation, size));
+        bytes += size;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.bytes;
+        }
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryResultCache[entries=%d, size=%,d/%,d bytes, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d]",
+                entries.size(), bytes, maxBytes, hits, misses, getHitRate() * 100, evictions);
+    }
+
+    private static long estimateBytes(List<?> rows) {
+        long total = 16L + 4L * rows.size();
+        for (Object row : rows) {
+            total += ROW_OVERHEAD;
+            if (row instanceof Car) {
+                Car car = (Car) row;
+                // Brand, model and color are shared dictionary values; don't trigger a description read
+                total += stringBytes(car.isDescriptionLoaded() ? car.getDescription() : null)
+                        + stringBytes(car.getImagePath());
+            } else if (row instanceof CarSummary) {
+                CarSummary car = (CarSummary) row;
+                total += stringBytes(car.getBrand()) + stringBytes(car.getModel()) + stringBytes(car.getColor())
+                        + stringBytes(car.getShortDescription()) + stringBytes(car.getImagePath());
+            }
+        }
+        return total;
+    }
+
+    private static long stringBytes(String s) {
+        // Compact strings store Latin-1 text at one byte per char; assume the worst case
+        return s == null ? 0 : STRING_OVERHEAD + 2L * s.length();
+    }
+
+    private static final class Key {
+        private final Object[] parts;
+        private final int hash;
+
+        private Key(Object[] parts) {
+            this.parts = parts;
+            this.hash = Arrays.hashCode(parts);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(parts, ((Key) o).parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final List<?> rows;
+        private final long generation;
+        private final long bytes;
+
+        private Entry(List<?> rows, long generation, long bytes) {
+            this.rows = rows;
+            this.generation = generation;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.carselling.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running statistics for one logical DAO operation: statement latency, rows returned or
+ * affected, connection-acquire time, errors and slow statements.
+ */
+public class QueryStats {
+
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram acquire = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    QueryStats(String operation) {
+        this.operation = operation;
+    }
+
+    void recordStatement(long nanos, long rowCount, boolean failed, boolean wasSlow) {
+        latency.record(nanos);
+        rows.add(rowCount);
+        if (failed) {
+            errors.increment();
+        }
+        if (wasSlow) {
+            slow.increment();
+        }
+    }
+
+    void recordAcquire(long nanos) {
+        acquire.record(nanos);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public LatencyHistogram getAcquireLatency() {
+        return acquire;
+    }
+
+    public long getStatementCount() {
+        return latency.getCount();
+    }
+
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getSlowCount() {
+        return slow.sum();
+    }
+}
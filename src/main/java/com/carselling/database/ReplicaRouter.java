@@ -0,0 +1,160 @@
+package com.carselling.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the read replica for read-only DAO calls. Replicas are probed in the background;
+ * one that fails a probe or a borrow is skipped until a later probe succeeds. Reads stay on
+ * the primary for a short window after every write so users see their own changes even
+ * while replicas lag behind.
+ */
+final class ReplicaRouter {
+
+    enum Balancing {
+        ROUND_ROBIN,
+        LEAST_LATENCY;
+
+        static Balancing parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown db.replica.balancing '" + value + "', using round_robin.");
+                return ROUND_ROBIN;
+            }
+        }
+    }
+
+    static final class Replica {
+        private final String url;
+        private final ConnectionPool pool;
+        private volatile boolean healthy = true;
+        // Smoothed probe round trip; replicas start equal until the first probe
+        private volatile double latencyMicros = 0;
+
+        private Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+
+        ConnectionPool getPool() {
+            return pool;
+        }
+
+        String getUrl() {
+            return url;
+        }
+    }
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final long stickyWindowNanos;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final ScheduledExecutorService prober;
+
+    private volatile boolean written = false;
+    private volatile long lastWriteNanos = 0;
+
+    ReplicaRouter(List<String> urls, List<ConnectionPool> pools, Balancing balancing,
+                  long stickyWindowMs, long probeIntervalMs) {
+        List<Replica> list = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            list.add(new Replica(urls.get(i), pools.get(i)));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.balancing = balancing;
+        this.stickyWindowNanos = TimeUnit.MILLISECONDS.toNanos(stickyWindowMs);
+
+        this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-replica-prober");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(this::probeAll, 0, Math.max(500, probeIntervalMs), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts (or extends) the read-your-writes window.
+     */
+    void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+        written = true;
+    }
+
+    boolean inReadYourWritesWindow() {
+        return written && System.nanoTime() - lastWriteNanos < stickyWindowNanos;
+    }
+
+    /**
+     * Returns the replica to read from, or null when the read belongs on the primary.
+     */
+    Replica choose() {
+        if (inReadYourWritesWindow()) {
+            return null;
+        }
+
+        if (balancing == Balancing.LEAST_LATENCY) {
+            Replica best = null;
+            for (Replica replica : replicas) {
+                if (replica.healthy && (best == null || replica.latencyMicros < best.latencyMicros)) {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            System.err.println("Read replica " + replica.url + " unavailable, reading from primary: " + reason);
+        }
+    }
+
+    private void probeAll() {
+        for (Replica replica : replicas) {
+            long start = System.nanoTime();
+            try (Connection conn = replica.pool.borrow(); Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT 1");
+                double sample = (System.nanoTime() - start) / 1_000.0;
+                replica.latencyMicros = replica.latencyMicros == 0
+                        ? sample
+                        : replica.latencyMicros + LATENCY_SMOOTHING * (sample - replica.latencyMicros);
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    System.out.println("Read replica " + replica.url + " is available again.");
+                }
+            } catch (SQLException e) {
+                markUnhealthy(replica, e.getMessage());
+            }
+        }
+    }
+
+    void shutdown() {
+        prober.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.carselling.database;
+
+import com.carselling.models.User;
+import com.carselling.utils.ConfigLoader;
+
+import java.util.Locale;
+
+/**
+ * Chooses the storage backend from {@code db.backend}: {@code mysql} (default) for the JDBC
+ * DAOs, or {@code memory} for the embedded in-process repositories, which need no database
+ * server and start empty on every run.
+ *
+ * With {@code catalog.index.enabled}, car reads that fit the in-process
+ * {@link CatalogIndex} are answered from it on top of either backend.
+ */
+public final class Repositories {
+
+    public enum Backend {
+        MYSQL,
+        MEMORY
+    }
+
+    private static final Backend BACKEND = parseBackend(ConfigLoader.getProperty("db.backend", "mysql"));
+    private static final boolean CATALOG_INDEX = ConfigLoader.getBooleanProperty("catalog.index.enabled", false);
+
+    static {
+        if (BACKEND == Backend.MEMORY && ConfigLoader.getBooleanProperty("db.memory.demoUser", true)) {
+            new InMemoryUserRepository().createUser(new User("demo", "demo@example.com", "demo123"));
+            System.out.println("In-memory backend: sign in as demo / demo123.");
+        }
+    }
+
+    private Repositories() {
+        // Private constructor to prevent instantiation
+    }
+
+    private static Backend parseBackend(String value) {
+        try {
+            return Backend.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown db.backend '" + value + "', using mysql.");
+            return Backend.MYSQL;
+        }
+    }
+
+    public static Backend getBackend() {
+        return BACKEND;
+    }
+
+    public static CarRepository cars() {
+        CarRepository base = BACKEND == Backend.MEMORY ? new InMemoryCarRepository() : new CarDAO();
+        return CATALOG_INDEX ? new IndexedCarRepository(base) : base;
+    }
+
+    public static UserRepository users() {
+        return BACKEND == Backend.MEMORY ? new InMemoryUserRepository() : new UserDAO();
+    }
+
+    public static WatchlistRepository watchlist() {
+        return BACKEND == Backend.MEMORY ? new InMemoryWatchlistRepository() : new WatchlistDAO();
+    }
+}
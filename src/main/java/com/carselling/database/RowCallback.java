@@ -0,0 +1,9 @@
+package com.carselling.database;
+
+/**
+ * Receives rows one at a time from a streaming query.
+ */
+@FunctionalInterface
+public interface RowCallback<T> {
+    void accept(T row) throws Exception;
+}
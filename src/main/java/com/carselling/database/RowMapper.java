@@ -0,0 +1,119 @@
+package com.carselling.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps result set rows to objects by column index. Column labels are resolved against the
+ * {@link ResultSetMetaData} once per SQL string and the compiled plan is cached, so the per-row
+ * work is only indexed getters. Thread-safe.
+ */
+public final class RowMapper<T> {
+
+    /**
+     * Maps the current row of a result set whose column indexes have already been resolved.
+     */
+    @FunctionalInterface
+    public interface Plan<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Resolves the column indexes a plan needs and returns the plan.
+     */
+    @FunctionalInterface
+    public interface Compiler<T> {
+        Plan<T> compile(Columns columns) throws SQLException;
+    }
+
+    // Dynamic search SQL has a bounded number of shapes; this only guards against misuse
+    private static final int MAX_PLANS = 256;
+
+    private final Compiler<T> compiler;
+    private final ConcurrentHashMap<String, CachedPlan<T>> plans = new ConcurrentHashMap<>();
+
+    public RowMapper(Compiler<T> compiler) {
+        this.compiler = compiler;
+    }
+
+    /**
+     * Returns the plan for {@code sql}, compiling it from the result set's metadata on first use.
+     * Call once per result set, before the row loop.
+     */
+    public Plan<T> planFor(String sql, ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+
+        CachedPlan<T> cached = plans.get(sql);
+        // A different column count means the table changed shape under a SELECT *
+        if (cached != null && cached.columnCount == columnCount) {
+            return cached.plan;
+        }
+
+        Plan<T> plan = compiler.compile(new Columns(meta));
+        if (plans.size() >= MAX_PLANS) {
+            plans.clear();
+        }
+        plans.put(sql, new CachedPlan<>(plan, columnCount));
+        return plan;
+    }
+
+    /**
+     * Compiles a plan for a one-off result set without caching it.
+     */
+    public Plan<T> compile(ResultSet rs) throws SQLException {
+        return compiler.compile(new Columns(rs.getMetaData()));
+    }
+
+    public int getCachedPlanCount() {
+        return plans.size();
+    }
+
+    /**
+     * Column label to 1-based index lookup for one result set shape. Labels are matched
+     * case-insensitively; when a label repeats, the first column wins, like
+     * {@link ResultSet#findColumn}.
+     */
+    public static final class Columns {
+        private final Map<String, Integer> indexes;
+
+        Columns(ResultSetMetaData meta) throws SQLException {
+            int count = meta.getColumnCount();
+            indexes = new HashMap<>(count * 2);
+            for (int i = 1; i <= count; i++) {
+                indexes.putIfAbsent(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        public int require(String label) throws SQLException {
+            Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new SQLException("Column '" + label + "' not found in result set.");
+            }
+            return index;
+        }
+
+        /**
+         * Returns the column's index, or 0 if the result set does not have it.
+         */
+        public int optional(String label) {
+            Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+            return index == null ? 0 : index;
+        }
+    }
+
+    private static final class CachedPlan<T> {
+        private final Plan<T> plan;
+        private final int columnCount;
+
+        private CachedPlan(Plan<T> plan, int columnCount) {
+            this.plan = plan;
+            this.columnCount = columnCount;
+        }
+    }
+}
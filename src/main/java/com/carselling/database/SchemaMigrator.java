@@ -0,0 +1,297 @@
+package com.carselling.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies the versioned scripts under {@code /com/carselling/migrations} in order and records
+ * each one, with a checksum of its text, in the {@code schema_version} table. When the database
+ * is already current, startup costs a single query against that table.
+ *
+ * Applied scripts must never be edited; schema changes go into a new script appended to
+ * {@link #SCRIPTS}. A checksum mismatch stops migration so a drifted schema is noticed.
+ */
+final class SchemaMigrator {
+
+    // In version order; the file name is V<version>__<description>.sql
+    private static final String[] SCRIPTS = {
+            "V1__create_tables.sql",
+            "V2__search_indexes.sql",
+            "V3__keyset_and_fulltext_indexes.sql",
+            "V4__description_excerpt.sql",
+            "V5__covering_listing_indexes.sql",
+            "V6__car_change_tracking.sql"
+    };
+
+    private static final String SCRIPT_DIR = "/com/carselling/migrations/";
+    private static final String LOCK_NAME = "carselling_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    // MySQL errors for objects that already exist: table, column, index
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_NO_SUCH_TABLE = 1146;
+
+    static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String checksum;
+
+        private Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = sha256(script);
+        }
+    }
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Brings the schema up to the latest version. Returns false if a migration failed or an
+     * applied script no longer matches its recorded checksum.
+     */
+    static boolean migrate(Connection conn) throws SQLException {
+        List<Migration> migrations = loadMigrations();
+        Map<Integer, String> applied = appliedVersions(conn);
+        if (applied != null && isCurrent(applied, migrations)) {
+            return validate(applied, migrations);
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            if (!acquireLock(stmt)) {
+                System.err.println("Timed out waiting for another instance to finish migrating the schema.");
+                return false;
+            }
+            try {
+                // Another instance may have migrated while we waited for the lock
+                applied = appliedVersions(conn);
+                boolean adopting = false;
+                if (applied == null) {
+                    adopting = tableExists(conn, "cars");
+                    createVersionTable(stmt);
+                    applied = new TreeMap<>();
+                }
+                if (!validate(applied, migrations)) {
+                    return false;
+                }
+
+                for (Migration migration : migrations) {
+                    if (!applied.containsKey(migration.version)) {
+                        apply(conn, stmt, migration, adopting);
+                    }
+                }
+                return true;
+            } finally {
+                stmt.executeQuery("SELECT RELEASE_LOCK('" + LOCK_NAME + "')").close();
+            }
+        }
+    }
+
+    /**
+     * Recorded version to checksum, or null when the schema_version table does not exist yet.
+     */
+    private static Map<Integer, String> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new TreeMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+            return applied;
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ER_NO_SUCH_TABLE) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isCurrent(Map<Integer, String> applied, List<Migration> migrations) {
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean validate(Map<Integer, String> applied, List<Migration> migrations) {
+        boolean valid = true;
+        for (Migration migration : migrations) {
+            String recorded = applied.get(migration.version);
+            if (recorded != null && !recorded.equals(migration.checksum)) {
+                System.err.println("Schema migration V" + migration.version + " (" + migration.description
+                        + ") was changed after it was applied; expected checksum " + recorded
+                        + " but found " + migration.checksum + ".");
+                valid = false;
+            }
+        }
+
+        int latest = migrations.get(migrations.size() - 1).version;
+        for (int version : applied.keySet()) {
+            if (version > latest) {
+                System.err.println("Database schema is at V" + version + ", newer than this build (V" + latest + ").");
+                break;
+            }
+        }
+        return valid;
+    }
+
+    private static boolean acquireLock(Statement stmt) throws SQLException {
+        // Keeps two instances starting together from running the same DDL
+        try (ResultSet rs = stmt.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void createVersionTable(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INT PRIMARY KEY, " +
+                "description VARCHAR(200) NOT NULL, " +
+                "checksum CHAR(64) NOT NULL, " +
+                "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "execution_ms INT NOT NULL" +
+                ")");
+    }
+
+    /**
+     * Runs one script and records it. MySQL commits DDL implicitly, so a script that fails
+     * halfway is not recorded and must be repaired by hand before startup can continue.
+     *
+     * While adopting a database created before migrations existed, objects the script would
+     * create may already be there; those statements are skipped instead of failing.
+     */
+    private static void apply(Connection conn, Statement stmt, Migration migration, boolean adopting) throws SQLException {
+        long start = System.nanoTime();
+        for (String sql : splitStatements(migration.script)) {
+            try {
+                stmt.execute(sql);
+            } catch (SQLException e) {
+                int code = e.getErrorCode();
+                boolean alreadyThere = code == ER_TABLE_EXISTS || code == ER_DUP_FIELDNAME || code == ER_DUP_KEYNAME;
+                if (!adopting || !alreadyThere) {
+                    throw new SQLException("Schema migration V" + migration.version + " (" + migration.description
+                            + ") failed: " + e.getMessage(), e.getSQLState(), code, e);
+                }
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version);
+            pstmt.setString(2, migration.description);
+            pstmt.setString(3, migration.checksum);
+            pstmt.setInt(4, (int) elapsedMs);
+            pstmt.executeUpdate();
+        }
+        System.out.println("Applied schema migration V" + migration.version + " (" + migration.description
+                + ") in " + elapsedMs + " ms" + (adopting ? " [adopted existing schema]" : "") + ".");
+    }
+
+    static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String name : SCRIPTS) {
+            int separator = name.indexOf("__");
+            int version = Integer.parseInt(name.substring(1, separator));
+            String description = name.substring(separator + 2, name.length() - ".sql".length()).replace('_', ' ');
+            if (!migrations.isEmpty() && version != migrations.get(migrations.size() - 1).version + 1) {
+                throw new IllegalStateException("Schema migration " + name + " is out of sequence.");
+            }
+            migrations.add(new Migration(version, description, readScript(name)));
+        }
+        return Collections.unmodifiableList(migrations);
+    }
+
+    private static String readScript(String name) {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(SCRIPT_DIR + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Schema migration " + name + " is missing from the classpath.");
+            }
+            // Normalise line endings so a checkout with CRLF files keeps the same checksum
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read schema migration " + name, e);
+        }
+    }
+
+    /**
+     * Splits a script on semicolons outside quotes, dropping {@code --} comment lines.
+     */
+    static List<String> splitStatements(String script) {
+        StringBuilder cleaned = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                cleaned.append(line).append('\n');
+            }
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < cleaned.length(); i++) {
+            char c = cleaned.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == ';') {
+                addStatement(statements, current);
+                current.setLength(0);
+                continue;
+            }
+            current.append(c);
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder sql) {
+        String statement = sql.toString().trim();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.carselling.database;
+
+import com.carselling.utils.ConfigLoader;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs statements slower than {@code db.slowQuery.thresholdMs} together with their bound
+ * parameters and, for reads and DML, the server's EXPLAIN plan. Entries are written on a
+ * background thread so the slow caller is not delayed further; when that thread falls behind,
+ * new entries are dropped.
+ */
+final class SlowQueryLog {
+
+    private static final long THRESHOLD_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(ConfigLoader.getLongProperty("db.slowQuery.thresholdMs", 500L));
+    private static final boolean EXPLAIN = ConfigLoader.getBooleanProperty("db.slowQuery.explain", true);
+    // Empty means standard error
+    private static final String LOG_FILE = ConfigLoader.getProperty("db.slowQuery.logFile", "").trim();
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private static final ThreadPoolExecutor writer = createWriter();
+
+    private SlowQueryLog() {
+        // Private constructor to prevent instantiation
+    }
+
+    private static ThreadPoolExecutor createWriter() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100),
+                r -> {
+                    Thread thread = new Thread(r, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    static boolean isSlow(long nanos) {
+        return nanos >= THRESHOLD_NANOS;
+    }
+
+    /**
+     * Queues a slow statement for logging.
+     *
+     * @param parameters bound parameters by position (index 0 is parameter 1), or null when
+     *                   the operation's parameters must not be logged
+     */
+    static void record(String operation, String sql, List<Object> parameters, int batchSize, long nanos, long rows) {
+        LocalDateTime at = LocalDateTime.now();
+        writer.execute(() -> write(at, operation, sql, parameters, batchSize, nanos, rows));
+    }
+
+    private static void write(LocalDateTime at, String operation, String sql, List<Object> parameters,
+                              int batchSize, long nanos, long rows) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(String.format("# %s slow query: %s took %.1f ms, %d rows%n",
+                at, operation, nanos / 1_000_000.0, rows));
+        entry.append("  SQL: ").append(sql == null ? "(unknown)" : sql.replaceAll("\\s+", " ")).append('\n');
+
+        if (batchSize > 0) {
+            entry.append("  Batch of ").append(batchSize).append(" statements (parameters not recorded)\n");
+        } else if (parameters == null) {
+            entry.append("  Parameters: (redacted)\n");
+        } else if (!parameters.isEmpty()) {
+            entry.append("  Parameters: ").append(formatParameters(parameters)).append('\n');
+        }
+
+        if (EXPLAIN && batchSize == 0 && parameters != null && isExplainable(sql)) {
+            appendExplain(entry, sql, parameters);
+        }
+
+        if (LOG_FILE.isEmpty()) {
+            System.err.print(entry);
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(LOG_FILE, true))) {
+            out.print(entry);
+        } catch (IOException e) {
+            System.err.println("Error writing slow query log: " + e.getMessage());
+            System.err.print(entry);
+        }
+    }
+
+    private static boolean isExplainable(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String verb = sql.trim().toUpperCase(Locale.ROOT);
+        return verb.startsWith("SELECT") || verb.startsWith("UPDATE")
+                || verb.startsWith("DELETE") || verb.startsWith("INSERT");
+    }
+
+    private static void appendExplain(StringBuilder entry, String sql, List<Object> parameters) {
+        // An uninstrumented connection, so a slow EXPLAIN cannot log itself
+        Connection conn = DatabaseConnection.borrowUninstrumented();
+        if (conn == null) {
+            entry.append("  EXPLAIN: no connection available\n");
+            return;
+        }
+
+        try (conn; PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                entry.append("  EXPLAIN:\n");
+                while (rs.next()) {
+                    entry.append("   ");
+                    for (int i = 1; i <= columns; i++) {
+                        entry.append(' ').append(meta.getColumnLabel(i)).append('=').append(rs.getString(i));
+                    }
+                    entry.append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            entry.append("  EXPLAIN failed: ").append(e.getMessage()).append('\n');
+        }
+    }
+
+    private static String formatParameters(List<Object> parameters) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object value = parameters.get(i);
+            if (value instanceof String) {
+                String text = (String) value;
+                if (text.length() > MAX_PARAMETER_LENGTH) {
+                    text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+                }
+                sb.append('\'').append(text).append('\'');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
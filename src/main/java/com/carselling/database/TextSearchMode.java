@@ -0,0 +1,21 @@
+package com.carselling.database;
+
+/**
+ * MySQL FULLTEXT search modifiers supported by {@link CarDAO#searchCarsFullText}.
+ */
+public enum TextSearchMode {
+    // Plain words, ranked by relevance
+    NATURAL_LANGUAGE("IN NATURAL LANGUAGE MODE"),
+    // Operators such as +required -excluded "exact phrase" and prefix*
+    BOOLEAN("IN BOOLEAN MODE");
+
+    private final String modifier;
+
+    TextSearchMode(String modifier) {
+        this.modifier = modifier;
+    }
+
+    String getModifier() {
+        return modifier;
+    }
+}
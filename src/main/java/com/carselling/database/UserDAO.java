@@ -6,17 +6,18 @@ import org.mindrot.jbcrypt.BCrypt;
 import java.sql.*;
 import java.time.LocalDateTime;
 
-public class UserDAO {
+public class UserDAO implements UserRepository {
     
+    @Override
     public boolean createUser(User user) {
         String sql = "INSERT INTO users (username, email, password) VALUES (?, ?, ?)";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("UserDAO.createUser", true);
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             // Hash password before storing
             String hashedPassword = BCrypt.hashpw(user.getPassword(), BCrypt.gensalt());
@@ -26,6 +27,7 @@ public class UserDAO {
             pstmt.setString(3, hashedPassword);
             
             int rowsAffected = pstmt.executeUpdate();
+            DatabaseConnection.recordWrite();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -35,15 +37,16 @@ public class UserDAO {
         }
     }
     
+    @Override
     public User authenticateUser(String username, String password) {
         String sql = "SELECT * FROM users WHERE username = ? OR email = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getReadConnection("UserDAO.authenticateUser");
         if (conn == null) {
             return null;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, username);
             pstmt.setString(2, username);
@@ -78,15 +81,16 @@ public class UserDAO {
         return null;
     }
     
+    @Override
     public boolean usernameExists(String username) {
         String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("UserDAO.usernameExists");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, username);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -103,15 +107,16 @@ public class UserDAO {
         return false;
     }
     
+    @Override
     public boolean emailExists(String email) {
         String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("UserDAO.emailExists");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, email);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -128,15 +133,16 @@ public class UserDAO {
         return false;
     }
     
+    @Override
     public User getUserById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getReadConnection("UserDAO.getUserById");
         if (conn == null) {
             return null;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
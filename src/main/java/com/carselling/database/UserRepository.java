@@ -0,0 +1,22 @@
+package com.carselling.database;
+
+import com.carselling.models.User;
+
+/**
+ * Storage for user accounts. Passwords are stored as bcrypt hashes by every implementation.
+ */
+public interface UserRepository {
+
+    boolean createUser(User user);
+
+    /**
+     * Returns the user whose username or email matches and whose password verifies, or null.
+     */
+    User authenticateUser(String username, String password);
+
+    boolean usernameExists(String username);
+
+    boolean emailExists(String email);
+
+    User getUserById(int id);
+}
@@ -1,27 +1,30 @@
 package com.carselling.database;
 
-import com.carselling.models.Car;
+import com.carselling.models.CarSummary;
+import com.carselling.utils.IntHashSet;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class WatchlistDAO {
+public class WatchlistDAO implements WatchlistRepository {
     
+    @Override
     public boolean addToWatchlist(int userId, int carId) {
         String sql = "INSERT INTO watchlist (user_id, car_id) VALUES (?, ?)";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("WatchlistDAO.addToWatchlist");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
             pstmt.setInt(2, carId);
             
             int rowsAffected = pstmt.executeUpdate();
+            DatabaseConnection.recordWrite();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -36,20 +39,22 @@ public class WatchlistDAO {
         }
     }
     
+    @Override
     public boolean removeFromWatchlist(int userId, int carId) {
         String sql = "DELETE FROM watchlist WHERE user_id = ? AND car_id = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getConnection("WatchlistDAO.removeFromWatchlist");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
             pstmt.setInt(2, carId);
             
             int rowsAffected = pstmt.executeUpdate();
+            DatabaseConnection.recordWrite();
             return rowsAffected > 0;
             
         } catch (SQLException e) {
@@ -60,15 +65,16 @@ public class WatchlistDAO {
         return false;
     }
     
+    @Override
     public boolean isInWatchlist(int userId, int carId) {
         String sql = "SELECT COUNT(*) FROM watchlist WHERE user_id = ? AND car_id = ?";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getReadConnection("WatchlistDAO.isInWatchlist");
         if (conn == null) {
             return false;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
             pstmt.setInt(2, carId);
@@ -86,41 +92,57 @@ public class WatchlistDAO {
         return false;
     }
     
-    public List<Car> getWatchlistCars(int userId) {
-        List<Car> cars = new ArrayList<>();
-        String sql = "SELECT c.* FROM cars c " +
+    /**
+     * Loads the ids of every car on the user's watchlist in a single round trip.
+     */
+    @Override
+    public IntHashSet getWatchlistCarIds(int userId) {
+        IntHashSet carIds = new IntHashSet();
+        String sql = "SELECT car_id FROM watchlist WHERE user_id = ?";
+        
+        Connection conn = DatabaseConnection.getReadConnection("WatchlistDAO.getWatchlistCarIds");
+        if (conn == null) {
+            return carIds;
+        }
+        
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    carIds.add(rs.getInt(1));
+                }
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading watchlist ids: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return carIds;
+    }
+    
+    @Override
+    public List<CarSummary> getWatchlistCars(int userId) {
+        List<CarSummary> cars = new ArrayList<>();
+        String sql = "SELECT c.id, c.user_id, c.brand, c.model, c.year, c.price, c.mileage, c.color, " +
+                     "c.image_path, c.created_at, c.description_excerpt FROM cars c " +
                      "INNER JOIN watchlist w ON c.id = w.car_id " +
                      "WHERE w.user_id = ? " +
                      "ORDER BY w.created_at DESC";
         
-        Connection conn = DatabaseConnection.getConnection();
+        Connection conn = DatabaseConnection.getReadConnection("WatchlistDAO.getWatchlistCars");
         if (conn == null) {
             return cars;
         }
         
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (conn; PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper.Plan<CarSummary> plan = CarRowMappers.SUMMARY.planFor(sql, rs);
                 while (rs.next()) {
-                    Car car = new Car();
-                    car.setId(rs.getInt("id"));
-                    car.setUserId(rs.getInt("user_id"));
-                    car.setBrand(rs.getString("brand"));
-                    car.setModel(rs.getString("model"));
-                    car.setYear(rs.getInt("year"));
-                    car.setPrice(rs.getBigDecimal("price"));
-                    car.setMileage(rs.getInt("mileage"));
-                    car.setColor(rs.getString("color"));
-                    car.setDescription(rs.getString("description"));
-                    car.setImagePath(rs.getString("image_path"));
-                    
-                    Timestamp timestamp = rs.getTimestamp("created_at");
-                    if (timestamp != null) {
-                        car.setCreatedAt(timestamp.toLocalDateTime());
-                    }
-                    
-                    cars.add(car);
+                    cars.add(plan.map(rs));
                 }
             }
             
@@ -131,4 +153,4 @@ public class WatchlistDAO {
         
         return cars;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.carselling.database;
+
+import com.carselling.models.CarSummary;
+import com.carselling.utils.IntHashSet;
+
+import java.util.List;
+
+/**
+ * Storage for users' watchlists. The session's cached watchlist ids are kept in step by
+ * {@link com.carselling.services.WatchlistService}, not by implementations.
+ */
+public interface WatchlistRepository {
+
+    boolean addToWatchlist(int userId, int carId);
+
+    boolean removeFromWatchlist(int userId, int carId);
+
+    boolean isInWatchlist(int userId, int carId);
+
+    IntHashSet getWatchlistCarIds(int userId);
+
+    /**
+     * Returns the user's watched cars, most recently added first.
+     */
+    List<CarSummary> getWatchlistCars(int userId);
+}
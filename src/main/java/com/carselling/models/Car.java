@@ -1,18 +1,41 @@
 package com.carselling.models;
 
+import com.carselling.utils.StringDictionary;
+
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
-
+import java.util.function.IntFunction;
+
+/**
+ * A full listing. Kept lean because whole result sets of these are held in memory: brand,
+ * model and color are shared instances from one {@link StringDictionary} (a few hundred
+ * distinct values across the catalog), the price is whole cents, and a car read without its
+ * description fetches it on first {@link #getDescription()}.
+ */
 public class Car {
+
+    /**
+     * Distinct brand, model and color values shared between cars. The dictionary is never
+     * evicted, so free-text values from imports could otherwise grow it for the life of the
+     * process; past this many, new values are simply kept as each car's own string.
+     */
+    public static final int MAX_SHARED_VALUES = 20_000;
+
+    private static final StringDictionary VALUES = new StringDictionary(MAX_SHARED_VALUES);
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
     private int id;
     private int userId;
     private String brand;
     private String model;
     private int year;
-    private BigDecimal price;
+    private long priceCents = NO_PRICE;
     private int mileage;
     private String color;
     private String description;
+    // Set while the description has not been read yet
+    private IntFunction<String> descriptionLoader;
     private String imagePath;
     private LocalDateTime createdAt;
 
@@ -22,16 +45,37 @@ public class Car {
     public Car(int userId, String brand, String model, int year, BigDecimal price, 
                int mileage, String color, String description, String imagePath) {
         this.userId = userId;
-        this.brand = brand;
-        this.model = model;
+        setBrand(brand);
+        setModel(model);
         this.year = year;
-        this.price = price;
+        setPrice(price);
         this.mileage = mileage;
-        this.color = color;
+        setColor(color);
         this.description = description;
         this.imagePath = imagePath;
     }
 
+    /**
+     * A copy that can be edited without touching {@code other}. An unread description stays
+     * unread in the copy and is fetched when the copy first needs it.
+     */
+    public Car(Car other) {
+        synchronized (other) {
+            this.description = other.description;
+            this.descriptionLoader = other.descriptionLoader;
+        }
+        this.id = other.id;
+        this.userId = other.userId;
+        this.brand = other.brand;
+        this.model = other.model;
+        this.year = other.year;
+        this.priceCents = other.priceCents;
+        this.mileage = other.mileage;
+        this.color = other.color;
+        this.imagePath = other.imagePath;
+        this.createdAt = other.createdAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -54,7 +98,7 @@ public class Car {
     }
 
     public void setBrand(String brand) {
-        this.brand = brand;
+        this.brand = VALUES.intern(brand);
     }
 
     public String getModel() {
@@ -62,7 +106,7 @@ public class Car {
     }
 
     public void setModel(String model) {
-        this.model = model;
+        this.model = VALUES.intern(model);
     }
 
     public int getYear() {
@@ -74,11 +118,23 @@ public class Car {
     }
 
     public BigDecimal getPrice() {
-        return price;
+        return priceCents == NO_PRICE ? null : BigDecimal.valueOf(priceCents, 2);
     }
 
+    /**
+     * Stored like the DECIMAL(10, 2) column, so extra decimals are rounded away.
+     *
+     * @throws ArithmeticException if the price does not fit in whole cents as a long
+     */
     public void setPrice(BigDecimal price) {
-        this.price = price;
+        this.priceCents = price == null ? NO_PRICE : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * The price in cents without allocating a BigDecimal; only meaningful if {@link #getPrice()} is not null.
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     public int getMileage() {
@@ -94,15 +150,36 @@ public class Car {
     }
 
     public void setColor(String color) {
-        this.color = color;
-    }
-
-    public String getDescription() {
+        this.color = VALUES.intern(color);
+    }
+
+    /**
+     * May run a query the first time on a car read without its description, so call it
+     * off the FX thread until {@link #isDescriptionLoaded()}.
+     */
+    public synchronized String getDescription() {
+        if (descriptionLoader != null) {
+            description = descriptionLoader.apply(id);
+            descriptionLoader = null;
+        }
         return description;
     }
 
-    public void setDescription(String description) {
+    public synchronized void setDescription(String description) {
         this.description = description;
+        this.descriptionLoader = null;
+    }
+
+    /**
+     * Leaves the description unread; {@code loader} fetches it by car id on first access.
+     */
+    public synchronized void setDescriptionLoader(IntFunction<String> loader) {
+        this.description = null;
+        this.descriptionLoader = loader;
+    }
+
+    public synchronized boolean isDescriptionLoaded() {
+        return descriptionLoader == null;
     }
 
     public String getImagePath() {
@@ -123,7 +200,7 @@ public class Car {
 
     @Override
     public String toString() {
-        return String.format("%s %s (%d) - $%.2f", brand, model, year, price);
+        return String.format("%s %s (%d) - $%.2f", getBrand(), getModel(), year, getPrice());
     }
 }
 
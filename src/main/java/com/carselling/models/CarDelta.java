@@ -0,0 +1,60 @@
+package com.carselling.models;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Listings inserted, updated or deleted since a watermark. Pass {@link #getWatermark()} to
+ * the next request. Changes close to the watermark can be reported twice, so apply them as
+ * upserts and removals by id.
+ */
+public class CarDelta {
+    private final List<CarSummary> changed;
+    private final List<Integer> removedIds;
+    private final LocalDateTime watermark;
+    private final boolean reloadRequired;
+
+    public CarDelta(List<CarSummary> changed, List<Integer> removedIds, LocalDateTime watermark,
+                    boolean reloadRequired) {
+        this.changed = changed;
+        this.removedIds = removedIds;
+        this.watermark = watermark;
+        this.reloadRequired = reloadRequired;
+    }
+
+    public static CarDelta none(LocalDateTime watermark) {
+        return new CarDelta(Collections.emptyList(), Collections.emptyList(), watermark, false);
+    }
+
+    /**
+     * The watermark is too old for the deletions to still be known; the caller has to
+     * reload instead of applying a delta.
+     */
+    public static CarDelta reload(LocalDateTime watermark) {
+        return new CarDelta(Collections.emptyList(), Collections.emptyList(), watermark, true);
+    }
+
+    /**
+     * Inserted and updated listings, newest first.
+     */
+    public List<CarSummary> getChanged() {
+        return changed;
+    }
+
+    public List<Integer> getRemovedIds() {
+        return removedIds;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public boolean isReloadRequired() {
+        return reloadRequired;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && removedIds.isEmpty() && !reloadRequired;
+    }
+}
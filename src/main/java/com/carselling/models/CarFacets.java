@@ -0,0 +1,150 @@
+package com.carselling.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of the cars matching a filter, broken down by brand, model year, price band and
+ * mileage band. Brands are ordered by count, years newest first, bands low to high.
+ */
+public class CarFacets {
+
+    // Band edges; a value falls into the band of the last edge it is >= (as MySQL's INTERVAL())
+    public static final int[] PRICE_BANDS = {5_000, 10_000, 20_000, 30_000, 50_000};
+    public static final int[] MILEAGE_BANDS = {10_000, 50_000, 100_000, 150_000};
+
+    private final long total;
+    private final List<FacetCount> brands;
+    private final List<FacetCount> years;
+    private final List<FacetCount> priceBands;
+    private final List<FacetCount> mileageBands;
+
+    private CarFacets(long total, List<FacetCount> brands, List<FacetCount> years,
+                      List<FacetCount> priceBands, List<FacetCount> mileageBands) {
+        this.total = total;
+        this.brands = Collections.unmodifiableList(brands);
+        this.years = Collections.unmodifiableList(years);
+        this.priceBands = Collections.unmodifiableList(priceBands);
+        this.mileageBands = Collections.unmodifiableList(mileageBands);
+    }
+
+    public static CarFacets empty() {
+        return new Builder().build();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<FacetCount> getBrands() {
+        return brands;
+    }
+
+    public List<FacetCount> getYears() {
+        return years;
+    }
+
+    public List<FacetCount> getPriceBands() {
+        return priceBands;
+    }
+
+    public List<FacetCount> getMileageBands() {
+        return mileageBands;
+    }
+
+    /**
+     * Index of the band {@code value} falls in: 0 below the first edge, {@code edges.length}
+     * at or above the last.
+     */
+    public static int band(long value, int[] edges) {
+        int band = 0;
+        while (band < edges.length && value >= edges[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    public static int priceBand(BigDecimal price) {
+        // Compare whole dollars; edges are integral so 4,999.99 still lands below 5,000
+        return band(price.setScale(0, RoundingMode.FLOOR).longValueExact(), PRICE_BANDS);
+    }
+
+    /**
+     * Adds up rows of (brand, year, price band, mileage band, count). A band index of -1
+     * means the value was NULL and is left out of that facet.
+     */
+    public static class Builder {
+        // Keyed case-insensitively, as MySQL's default collation groups brands
+        private final Map<String, long[]> brandCounts = new LinkedHashMap<>();
+        private final Map<String, String> brandLabels = new LinkedHashMap<>();
+        private final TreeMap<Integer, long[]> yearCounts = new TreeMap<>(Comparator.reverseOrder());
+        private final long[] priceCounts = new long[PRICE_BANDS.length + 1];
+        private final long[] mileageCounts = new long[MILEAGE_BANDS.length + 1];
+        private long total = 0;
+
+        public Builder add(String brand, int year, int priceBand, int mileageBand, long count) {
+            total += count;
+            if (brand != null) {
+                String key = brand.toLowerCase(Locale.ROOT);
+                brandLabels.putIfAbsent(key, brand);
+                brandCounts.computeIfAbsent(key, k -> new long[1])[0] += count;
+            }
+            yearCounts.computeIfAbsent(year, k -> new long[1])[0] += count;
+            if (priceBand >= 0) {
+                priceCounts[priceBand] += count;
+            }
+            if (mileageBand >= 0) {
+                mileageCounts[mileageBand] += count;
+            }
+            return this;
+        }
+
+        public CarFacets build() {
+            List<FacetCount> brands = new ArrayList<>();
+            for (Map.Entry<String, long[]> entry : brandCounts.entrySet()) {
+                brands.add(new FacetCount(brandLabels.get(entry.getKey()), entry.getValue()[0], null, null));
+            }
+            brands.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+                    .thenComparing(FacetCount::getLabel, String.CASE_INSENSITIVE_ORDER));
+
+            List<FacetCount> years = new ArrayList<>();
+            for (Map.Entry<Integer, long[]> entry : yearCounts.entrySet()) {
+                int year = entry.getKey();
+                years.add(new FacetCount(String.valueOf(year), entry.getValue()[0], year, year + 1));
+            }
+
+            return new CarFacets(total, brands, years,
+                    bands(priceCounts, PRICE_BANDS, "$", ""),
+                    bands(mileageCounts, MILEAGE_BANDS, "", " mi"));
+        }
+
+        private static List<FacetCount> bands(long[] counts, int[] edges, String prefix, String suffix) {
+            List<FacetCount> bands = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                Integer lower = i == 0 ? null : edges[i - 1];
+                Integer upper = i == edges.length ? null : edges[i];
+                String label;
+                if (lower == null) {
+                    label = String.format("Under %s%,d%s", prefix, upper, suffix);
+                } else if (upper == null) {
+                    label = String.format("%s%,d+%s", prefix, lower, suffix);
+                } else {
+                    label = String.format("%s%,d - %s%,d%s", prefix, lower, prefix, upper, suffix);
+                }
+                bands.add(new FacetCount(label, counts[i], lower, upper));
+            }
+            return bands;
+        }
+    }
+}
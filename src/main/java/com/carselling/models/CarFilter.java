@@ -0,0 +1,123 @@
+package com.carselling.models;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Objects;
+
+public class CarFilter {
+    private final String brand;
+    private final String model;
+    private final Integer minYear;
+    private final Integer maxYear;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+
+    public CarFilter(String brand, String model, Integer minYear, Integer maxYear,
+                     BigDecimal minPrice, BigDecimal maxPrice) {
+        this.brand = brand;
+        this.model = model;
+        this.minYear = minYear;
+        this.maxYear = maxYear;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public static CarFilter none() {
+        return new CarFilter(null, null, null, null, null, null);
+    }
+
+    /**
+     * Equivalent filter in canonical form, for use as a cache key: text is trimmed and
+     * lower-cased (matching is case-insensitive), blanks become null and prices drop
+     * trailing zeros so 10000 and 10000.00 compare equal.
+     */
+    public CarFilter normalized() {
+        return new CarFilter(normalize(brand), normalize(model), minYear, maxYear,
+                normalize(minPrice), normalize(maxPrice));
+    }
+
+    private static String normalize(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BigDecimal normalize(BigDecimal amount) {
+        return amount == null ? null : amount.stripTrailingZeros();
+    }
+
+    /**
+     * Whether a listing with these values passes the filter, using the same rules as the
+     * database queries: brand and model are case-insensitive substring matches.
+     */
+    public boolean matches(String carBrand, String carModel, int year, BigDecimal price) {
+        if (!containsIgnoreCase(carBrand, brand) || !containsIgnoreCase(carModel, model)) {
+            return false;
+        }
+        if (minYear != null && year < minYear) {
+            return false;
+        }
+        if (maxYear != null && year > maxYear) {
+            return false;
+        }
+        if (minPrice != null && price.compareTo(minPrice) < 0) {
+            return false;
+        }
+        return maxPrice == null || price.compareTo(maxPrice) <= 0;
+    }
+
+    private static boolean containsIgnoreCase(String value, String fragment) {
+        if (fragment == null || fragment.trim().isEmpty()) {
+            return true;
+        }
+        return value != null && value.toLowerCase(Locale.ROOT).contains(fragment.toLowerCase(Locale.ROOT));
+    }
+
+    // Getters
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CarFilter)) {
+            return false;
+        }
+        CarFilter other = (CarFilter) o;
+        return Objects.equals(brand, other.brand)
+                && Objects.equals(model, other.model)
+                && Objects.equals(minYear, other.minYear)
+                && Objects.equals(maxYear, other.maxYear)
+                && Objects.equals(minPrice, other.minPrice)
+                && Objects.equals(maxPrice, other.maxPrice);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(brand, model, minYear, maxYear, minPrice, maxPrice);
+    }
+}
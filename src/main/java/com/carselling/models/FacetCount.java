@@ -0,0 +1,41 @@
+package com.carselling.models;
+
+/**
+ * Number of matching cars with one facet value, such as a brand or a price band. Range
+ * facets carry their bounds: {@code lower} inclusive, {@code upper} exclusive, either null
+ * when the band is open-ended.
+ */
+public class FacetCount {
+    private final String label;
+    private final long count;
+    private final Integer lower;
+    private final Integer upper;
+
+    public FacetCount(String label, long count, Integer lower, Integer upper) {
+        this.label = label;
+        this.count = count;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Integer getLower() {
+        return lower;
+    }
+
+    public Integer getUpper() {
+        return upper;
+    }
+
+    @Override
+    public String toString() {
+        return label + " (" + count + ")";
+    }
+}
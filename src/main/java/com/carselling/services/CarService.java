@@ -0,0 +1,185 @@
+package com.carselling.services;
+
+import com.carselling.database.CarDAO;
+import com.carselling.database.CarRepository;
+import com.carselling.database.CatalogSnapshot;
+import com.carselling.database.Repositories;
+import com.carselling.database.TextSearchMode;
+import com.carselling.models.Car;
+import com.carselling.models.CarDelta;
+import com.carselling.models.CarFacets;
+import com.carselling.models.CarFilter;
+import com.carselling.models.CarSummary;
+import com.carselling.models.Page;
+import com.carselling.utils.ImageHandler;
+import com.carselling.utils.InventoryImporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Asynchronous facade over {@link CarRepository}; every call runs on {@link DbExecutor},
+ * except inventory imports, which run on the caller's own background thread.
+ */
+public class CarService {
+
+    // At most one background catch-up of the local catalog snapshot at a time
+    private static final AtomicBoolean snapshotSyncing = new AtomicBoolean(false);
+
+    private final CarRepository carRepository = Repositories.cars();
+
+    public CompletableFuture<Boolean> createCar(Car car) {
+        return DbExecutor.supply(() -> carRepository.createCar(car));
+    }
+
+    public CompletableFuture<Boolean> updateCar(Car car) {
+        return DbExecutor.supply(() -> carRepository.updateCar(car));
+    }
+
+    /**
+     * Copies {@code imageFile} into the image folder, if given, and inserts the car with it.
+     * Completes with an {@link IOException} when the image could not be saved.
+     */
+    public CompletableFuture<Boolean> createCar(Car car, File imageFile) {
+        return DbExecutor.supply(() -> {
+            if (imageFile != null) {
+                car.setImagePath(saveImage(imageFile));
+            }
+            return carRepository.createCar(car);
+        });
+    }
+
+    /**
+     * Like {@link #createCar(Car, File)} for an existing car; with no new image the car keeps
+     * the one it has.
+     */
+    public CompletableFuture<Boolean> updateCar(Car car, File imageFile) {
+        return DbExecutor.supply(() -> {
+            if (imageFile != null) {
+                car.setImagePath(saveImage(imageFile));
+            }
+            return carRepository.updateCar(car);
+        });
+    }
+
+    private static String saveImage(File imageFile) throws IOException {
+        String imagePath = ImageHandler.saveImage(imageFile);
+        if (imagePath == null) {
+            throw new IOException("Failed to save image. Please try again.");
+        }
+        return imagePath;
+    }
+
+    /**
+     * Streams an inventory file into the catalog as {@code userId}'s listings. Blocks until
+     * the file is done or {@code cancelled} turns true, so call it from a background thread;
+     * it would hold a database worker for the whole file.
+     */
+    public InventoryImporter.Progress importInventory(File file, InventoryImporter.Format format, int userId,
+                                                      InventoryImporter.ProgressListener listener,
+                                                      BooleanSupplier cancelled) throws IOException {
+        return new InventoryImporter(carRepository, userId).importFile(file, format, listener, cancelled);
+    }
+
+    public CompletableFuture<Boolean> deleteCar(int carId, int userId) {
+        return DbExecutor.supply(() -> carRepository.deleteCar(carId, userId));
+    }
+
+    public CompletableFuture<Car> getCarById(int id) {
+        return DbExecutor.supply(() -> carRepository.getCarById(id));
+    }
+
+    public CompletableFuture<List<CarSummary>> getCarsByUserId(int userId) {
+        return DbExecutor.supply(() -> carRepository.getCarsByUserId(userId));
+    }
+
+    public CompletableFuture<Page<CarSummary>> searchCarsPage(CarFilter filter, String cursor, int pageSize) {
+        return DbExecutor.supply(() -> carRepository.searchCarsPage(filter, cursor, pageSize));
+    }
+
+    public CompletableFuture<List<CarSummary>> searchCarsFullText(String query, TextSearchMode mode,
+                                                                  CarFilter filter, int limit) {
+        return DbExecutor.supply(() -> carRepository.searchCarsFullText(query, mode, filter, limit));
+    }
+
+    public CompletableFuture<CarFacets> getFacets(CarFilter filter) {
+        return DbExecutor.supply(() -> carRepository.getFacets(filter));
+    }
+
+    /**
+     * Also keeps the local catalog snapshot current: the delta is written into it when it
+     * covers the snapshot's watermark, and otherwise the snapshot catches up on its own.
+     * A fresh start (null watermark) says nothing about the snapshot and leaves it alone; a
+     * missing snapshot is only built by {@link #refreshSnapshot()} at startup.
+     */
+    public CompletableFuture<CarDelta> getChangesSince(LocalDateTime watermark) {
+        return DbExecutor.supply(() -> {
+            CarDelta delta = carRepository.getChangesSince(watermark);
+            CatalogSnapshot snapshot = CatalogSnapshot.shared();
+            if (snapshot != null && watermark != null && snapshot.getWatermark() != null
+                    && !snapshot.offer(watermark, delta)) {
+                syncSnapshot(snapshot);
+            }
+            return delta;
+        });
+    }
+
+    /**
+     * Catches the local catalog snapshot up with the database in the background, rebuilding
+     * it if it is missing or too old. Called once at startup.
+     */
+    public void refreshSnapshot() {
+        CatalogSnapshot snapshot = CatalogSnapshot.shared();
+        if (snapshot != null) {
+            syncSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * Drops change-feed tombstones past their retention in the background. Only the MySQL
+     * backend keeps them in a table; called once after startup.
+     */
+    public void purgeTombstones() {
+        if (Repositories.getBackend() == Repositories.Backend.MYSQL) {
+            DbExecutor.run(() -> new CarDAO().purgeTombstones());
+        }
+    }
+
+    private void syncSnapshot(CatalogSnapshot snapshot) {
+        if (snapshotSyncing.compareAndSet(false, true)) {
+            DbExecutor.run(() -> snapshot.sync(carRepository))
+                    .whenComplete((result, error) -> snapshotSyncing.set(false));
+        }
+    }
+
+    /**
+     * Watermark of the local catalog snapshot, or null if there is none yet. Reads a local
+     * file, not the database, so it can be called on the FX thread.
+     */
+    public LocalDateTime getSnapshotWatermark() {
+        CatalogSnapshot snapshot = CatalogSnapshot.shared();
+        return snapshot == null ? null : snapshot.getWatermark();
+    }
+
+    /**
+     * First catalog page from the local snapshot (empty if there is none), with a cursor for
+     * the following pages from the database. Safe on the FX thread.
+     */
+    public Page<CarSummary> getSnapshotPage(int pageSize) {
+        CatalogSnapshot snapshot = CatalogSnapshot.shared();
+        return snapshot == null ? Page.empty() : snapshot.firstPage(pageSize);
+    }
+
+    /**
+     * The underlying repository, for long-running jobs such as exports that manage their
+     * own background thread.
+     */
+    public CarRepository getRepository() {
+        return carRepository;
+    }
+}
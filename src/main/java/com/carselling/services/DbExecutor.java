@@ -0,0 +1,74 @@
+package com.carselling.services;
+
+import com.carselling.utils.ConfigLoader;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded thread pool that runs every database call off the JavaFX Application Thread.
+ */
+public class DbExecutor {
+
+    private static final int THREADS = ConfigLoader.getIntProperty("db.async.threads", 4);
+    private static final int QUEUE_CAPACITY = ConfigLoader.getIntProperty("db.async.queueCapacity", 200);
+
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    private DbExecutor() {
+        // Private constructor to prevent instantiation
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread thread = new Thread(r, "db-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Runs the call on the database pool. If the returned future is cancelled before the
+     * call starts, the call is skipped entirely.
+     */
+    public static <T> CompletableFuture<T> supply(Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(call.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new RejectedExecutionException("Too many pending database requests", e));
+        }
+        return future;
+    }
+
+    public static CompletableFuture<Void> run(Runnable call) {
+        return supply(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+}
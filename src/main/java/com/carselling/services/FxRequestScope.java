@@ -0,0 +1,114 @@
+package com.carselling.services;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Tracks a view's in-flight background requests and delivers their results on the JavaFX
+ * Application Thread. Results of requests that were cancelled, superseded or that finish
+ * after the view left the screen are dropped.
+ *
+ * Must only be used from the JavaFX Application Thread.
+ */
+public class FxRequestScope {
+
+    private final Set<CompletableFuture<?>> inFlight = new HashSet<>();
+    private final Map<String, CompletableFuture<?>> latestByKey = new HashMap<>();
+    private Scene watchedScene = null;
+
+    /**
+     * Creates a scope that cancels everything once {@code owner} leaves the screen: when the
+     * navigator swaps its view out of the scene, or the scene is taken off its window.
+     */
+    public FxRequestScope(Node owner) {
+        owner.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                cancelAll();
+            }
+            watchScene(newScene);
+        });
+        watchScene(owner.getScene());
+    }
+
+    /**
+     * Creates a scope that never cancels on its own, for views that stay loaded and still
+     * want their results while off screen.
+     */
+    public FxRequestScope() {
+    }
+
+    private void watchScene(Scene scene) {
+        // A cached view comes back to the same scene; listen to it only once
+        if (scene == null || scene == watchedScene) {
+            return;
+        }
+        watchedScene = scene;
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (oldWindow != null && newWindow == null) {
+                cancelAll();
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(CompletableFuture<T> future, Consumer<T> onSuccess,
+                                           Consumer<Throwable> onError) {
+        inFlight.add(future);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            boolean current = inFlight.remove(future);
+            if (!current || future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                onError.accept(unwrap(error));
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Like {@link #submit}, but first cancels the previous request with the same key so
+     * only the latest search or page load can update the view.
+     */
+    public <T> CompletableFuture<T> submitLatest(String key, CompletableFuture<T> future, Consumer<T> onSuccess,
+                                                 Consumer<Throwable> onError) {
+        cancel(key);
+        latestByKey.put(key, future);
+        future.whenComplete((result, error) -> Platform.runLater(() -> latestByKey.remove(key, future)));
+        return submit(future, onSuccess, onError);
+    }
+
+    public void cancel(String key) {
+        CompletableFuture<?> previous = latestByKey.remove(key);
+        if (previous != null) {
+            inFlight.remove(previous);
+            previous.cancel(false);
+        }
+    }
+
+    public void cancelAll() {
+        for (CompletableFuture<?> future : inFlight) {
+            future.cancel(false);
+        }
+        inFlight.clear();
+        latestByKey.clear();
+    }
+
+    public boolean isBusy(String key) {
+        return latestByKey.containsKey(key);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
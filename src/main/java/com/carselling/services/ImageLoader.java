@@ -0,0 +1,221 @@
+package com.carselling.services;
+
+import com.carselling.utils.ConfigLoader;
+import com.carselling.utils.ImageHandler;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Loads listing photos off the JavaFX Application Thread, decoded at the size they are shown
+ * instead of at full resolution. Requests for images in the viewport go ahead of the rest,
+ * newest first, and a request cancelled before a worker picks it up is never decoded.
+ * Decoded images are kept in a small LRU cache so scrolling back does not decode them again.
+ */
+public class ImageLoader {
+
+    private static final int THREADS = ConfigLoader.getIntProperty("images.threads", 2);
+    private static final long CACHE_BYTES = ConfigLoader.getLongProperty("images.cacheMegabytes", 64) * 1024 * 1024;
+    private static final Color PLACEHOLDER_COLOR = Color.web("#ecf0f1");
+
+    private static final PriorityBlockingQueue<Request> queue = new PriorityBlockingQueue<>();
+    private static final AtomicLong sequence = new AtomicLong();
+
+    // Guarded by the class lock
+    private static final LinkedHashMap<String, Image> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes = 0;
+    private static final Map<String, Image> placeholders = new HashMap<>();
+
+    static {
+        for (int i = 0; i < THREADS; i++) {
+            Thread worker = new Thread(ImageLoader::work, "image-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private ImageLoader() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * A pending image. Cancel it when the view it was for is rebound or goes away.
+     */
+    public static final class Request implements Comparable<Request> {
+        private final String imagePath;
+        private final double width;
+        private final double height;
+        private final Consumer<Image> onLoaded;
+        private final long order = sequence.incrementAndGet();
+        private volatile boolean inViewport;
+        private volatile boolean cancelled = false;
+
+        private Request(String imagePath, double width, double height, boolean inViewport, Consumer<Image> onLoaded) {
+            this.imagePath = imagePath;
+            this.width = width;
+            this.height = height;
+            this.inViewport = inViewport;
+            this.onLoaded = onLoaded;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            queue.remove(this);
+        }
+
+        /**
+         * Moves a queued request ahead of, or behind, the ones outside the viewport.
+         */
+        public void setInViewport(boolean inViewport) {
+            if (this.inViewport == inViewport || cancelled) {
+                return;
+            }
+            // The queue only orders on insertion, so take it out and put it back
+            if (queue.remove(this)) {
+                this.inViewport = inViewport;
+                queue.add(this);
+            } else {
+                this.inViewport = inViewport;
+            }
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            if (inViewport != other.inViewport) {
+                return inViewport ? -1 : 1;
+            }
+            // Newest first: older requests are the likeliest to have scrolled away
+            return Long.compare(other.order, order);
+        }
+    }
+
+    /**
+     * Loads {@code imagePath} scaled to fit {@code width} x {@code height} and hands it to
+     * {@code onLoaded} on the JavaFX Application Thread. A cached image is handed over
+     * before this returns. Nothing is called if the file is missing, cannot be decoded or
+     * the request is cancelled first.
+     */
+    public static Request load(String imagePath, double width, double height, boolean inViewport,
+                               Consumer<Image> onLoaded) {
+        Request request = new Request(imagePath, width, height, inViewport, onLoaded);
+        if (imagePath == null || imagePath.isEmpty()) {
+            request.cancelled = true;
+            return request;
+        }
+
+        Image cached = cached(cacheKey(imagePath, width, height));
+        if (cached != null) {
+            request.cancelled = true;
+            onLoaded.accept(cached);
+            return request;
+        }
+        queue.add(request);
+        return request;
+    }
+
+    /**
+     * A flat image of the given size to show until the photo is ready, shared per size.
+     */
+    public static synchronized Image placeholder(double width, double height) {
+        return placeholders.computeIfAbsent((int) width + "x" + (int) height, key -> {
+            WritableImage image = new WritableImage((int) width, (int) height);
+            PixelWriter pixels = image.getPixelWriter();
+            for (int y = 0; y < (int) height; y++) {
+                for (int x = 0; x < (int) width; x++) {
+                    pixels.setColor(x, y, PLACEHOLDER_COLOR);
+                }
+            }
+            return image;
+        });
+    }
+
+    private static void work() {
+        while (true) {
+            Request request;
+            try {
+                request = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (request.cancelled) {
+                continue;
+            }
+
+            try {
+                Image image = decode(request);
+                if (image != null && !request.cancelled) {
+                    Platform.runLater(() -> {
+                        if (!request.cancelled) {
+                            request.onLoaded.accept(image);
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                System.err.println("Could not load image " + request.imagePath + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static Image decode(Request request) {
+        String key = cacheKey(request.imagePath, request.width, request.height);
+        // Another request for the same image may have finished while this one waited
+        Image image = cached(key);
+        if (image != null) {
+            return image;
+        }
+
+        File file = ImageHandler.getImageFile(request.imagePath);
+        if (file == null) {
+            return null;
+        }
+        // Decoded on this thread, scaled down while decoding
+        image = new Image(file.toURI().toString(), request.width, request.height, true, true, false);
+        if (image.isError()) {
+            System.err.println("Could not decode image " + request.imagePath + ": "
+                    + (image.getException() != null ? image.getException().getMessage() : "unknown error"));
+            return null;
+        }
+        store(key, image);
+        return image;
+    }
+
+    private static String cacheKey(String imagePath, double width, double height) {
+        return imagePath + '@' + (int) width + 'x' + (int) height;
+    }
+
+    private static synchronized Image cached(String key) {
+        return cache.get(key);
+    }
+
+    private static synchronized void store(String key, Image image) {
+        Image previous = cache.put(key, image);
+        if (previous != null) {
+            cachedBytes -= bytes(previous);
+        }
+        cachedBytes += bytes(image);
+
+        // Evict least recently used images beyond the budget, but always keep the newest
+        Iterator<Map.Entry<String, Image>> it = cache.entrySet().iterator();
+        while (cachedBytes > CACHE_BYTES && cache.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Image> eldest = it.next();
+            cachedBytes -= bytes(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private static long bytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
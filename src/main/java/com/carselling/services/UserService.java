@@ -0,0 +1,57 @@
+package com.carselling.services;
+
+import com.carselling.database.Repositories;
+import com.carselling.database.UserRepository;
+import com.carselling.database.WatchlistRepository;
+import com.carselling.models.User;
+import com.carselling.utils.IntHashSet;
+import com.carselling.utils.SessionManager;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over {@link UserRepository}; every call runs on {@link DbExecutor}.
+ */
+public class UserService {
+
+    public enum RegistrationResult {
+        CREATED,
+        USERNAME_TAKEN,
+        EMAIL_TAKEN,
+        FAILED
+    }
+
+    private final UserRepository userRepository = Repositories.users();
+    private final WatchlistRepository watchlistRepository = Repositories.watchlist();
+
+    /**
+     * Authenticates and, on success, preloads the user's watchlist ids and starts the session
+     * before completing. Completes with null for bad credentials.
+     */
+    public CompletableFuture<User> login(String username, String password) {
+        return DbExecutor.supply(() -> {
+            User user = userRepository.authenticateUser(username, password);
+            if (user != null) {
+                IntHashSet watchlistCarIds = watchlistRepository.getWatchlistCarIds(user.getId());
+                SessionManager.setCurrentUser(user, watchlistCarIds);
+            }
+            return user;
+        });
+    }
+
+    public CompletableFuture<RegistrationResult> register(User user) {
+        return DbExecutor.supply(() -> {
+            if (userRepository.usernameExists(user.getUsername())) {
+                return RegistrationResult.USERNAME_TAKEN;
+            }
+            if (userRepository.emailExists(user.getEmail())) {
+                return RegistrationResult.EMAIL_TAKEN;
+            }
+            return userRepository.createUser(user) ? RegistrationResult.CREATED : RegistrationResult.FAILED;
+        });
+    }
+
+    public CompletableFuture<User> getUserById(int id) {
+        return DbExecutor.supply(() -> userRepository.getUserById(id));
+    }
+}
@@ -0,0 +1,58 @@
+package com.carselling.services;
+
+import com.carselling.database.Repositories;
+import com.carselling.database.WatchlistRepository;
+import com.carselling.models.CarSummary;
+import com.carselling.utils.SessionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous facade over {@link WatchlistRepository}; every call runs on {@link DbExecutor}.
+ * Adds and removes also update the session's cached watchlist ids.
+ */
+public class WatchlistService {
+
+    private final WatchlistRepository watchlistRepository = Repositories.watchlist();
+
+    public CompletableFuture<Boolean> addToWatchlist(int userId, int carId) {
+        return DbExecutor.supply(() -> {
+            boolean added = watchlistRepository.addToWatchlist(userId, carId);
+            if (added) {
+                SessionManager.watchlistAdded(userId, carId);
+            } else {
+                recheck(userId, carId);
+            }
+            return added;
+        });
+    }
+
+    public CompletableFuture<Boolean> removeFromWatchlist(int userId, int carId) {
+        return DbExecutor.supply(() -> {
+            boolean removed = watchlistRepository.removeFromWatchlist(userId, carId);
+            if (removed) {
+                SessionManager.watchlistRemoved(userId, carId);
+            } else {
+                recheck(userId, carId);
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * A write that changed nothing may mean the car was already (or no longer) on the list,
+     * e.g. from another window; ask the repository so the session matches it.
+     */
+    private void recheck(int userId, int carId) {
+        if (watchlistRepository.isInWatchlist(userId, carId)) {
+            SessionManager.watchlistAdded(userId, carId);
+        } else {
+            SessionManager.watchlistRemoved(userId, carId);
+        }
+    }
+
+    public CompletableFuture<List<CarSummary>> getWatchlistCars(int userId) {
+        return DbExecutor.supply(() -> watchlistRepository.getWatchlistCars(userId));
+    }
+}
@@ -0,0 +1,91 @@
+package com.carselling.utils;
+
+import com.carselling.models.Car;
+
+import java.math.BigDecimal;
+
+/**
+ * Validation rules for a car listing, shared by the listing form and the inventory importer.
+ */
+public class CarValidator {
+
+    public static final int MIN_YEAR = 1900;
+    public static final int MAX_YEAR = 2100;
+    // Largest value the DECIMAL(10, 2) price column holds
+    public static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private CarValidator() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Validates raw field text and builds a Car for the given seller.
+     *
+     * @throws ValidationException with a user-facing message for the first invalid field
+     */
+    public static Car parse(int userId, String brand, String model, String year, String price,
+                            String mileage, String color, String description, String imagePath)
+            throws ValidationException {
+        String brandValue = trim(brand);
+        String modelValue = trim(model);
+
+        if (brandValue.isEmpty()) {
+            throw new ValidationException("Brand is required.");
+        }
+
+        if (modelValue.isEmpty()) {
+            throw new ValidationException("Model is required.");
+        }
+
+        int yearValue;
+        try {
+            yearValue = Integer.parseInt(trim(year));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Please enter a valid year.");
+        }
+        if (yearValue < MIN_YEAR || yearValue > MAX_YEAR) {
+            throw new ValidationException("Please enter a valid year.");
+        }
+
+        BigDecimal priceValue;
+        try {
+            priceValue = new BigDecimal(trim(price));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Please enter a valid price.");
+        }
+        if (priceValue.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ValidationException("Price must be greater than 0.");
+        }
+        if (priceValue.compareTo(MAX_PRICE) > 0) {
+            throw new ValidationException("Price cannot be more than " + MAX_PRICE.toPlainString() + ".");
+        }
+
+        int mileageValue = 0;
+        if (!trim(mileage).isEmpty()) {
+            try {
+                mileageValue = Integer.parseInt(trim(mileage));
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Please enter a valid mileage.");
+            }
+            if (mileageValue < 0) {
+                throw new ValidationException("Mileage cannot be negative.");
+            }
+        }
+
+        String imagePathValue = trim(imagePath);
+        return new Car(userId, brandValue, modelValue, yearValue, priceValue, mileageValue,
+                trim(color), trim(description), imagePathValue.isEmpty() ? null : imagePathValue);
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    public static class ValidationException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public ValidationException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.carselling.utils;
+
+import com.carselling.database.CarRepository;
+import com.carselling.models.Car;
+import com.carselling.models.CarFilter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes the catalog, or any filtered subset, to CSV or JSON Lines straight from a
+ * streaming result set. Output goes to a temporary file that replaces the target only
+ * when the export completes, so a cancelled export never leaves a truncated file behind.
+ */
+public class CatalogExporter {
+
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".json") || lower.endsWith(".jsonl") || lower.endsWith(".ndjson")
+                    ? JSON_LINES
+                    : CSV;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(long rowsWritten);
+    }
+
+    // Same columns the inventory importer understands, so an export can be re-imported
+    private static final String CSV_HEADER = "id,brand,model,year,price,mileage,color,description,image_path,created_at";
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final CarRepository carRepository;
+
+    public CatalogExporter(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * Exports matching cars and returns the number of rows written, or -1 if cancelled.
+     */
+    public long export(Path target, Format format, CarFilter filter, ProgressListener listener,
+                       BooleanSupplier cancelled) throws Exception {
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        long[] lastReport = {0};
+        long rows;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = new BufferedWriter(
+                     Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), WRITE_BUFFER_SIZE),
+                     WRITE_BUFFER_SIZE)) {
+
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            long[] written = {0};
+            rows = carRepository.streamCars(filter, car -> {
+                if (format == Format.CSV) {
+                    writeCsv(writer, car);
+                } else {
+                    writeJson(writer, car);
+                }
+                written[0]++;
+                long now = System.nanoTime();
+                if (now - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport[0] = now;
+                    listener.onProgress(written[0]);
+                }
+            }, cancelled);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (cancelled.getAsBoolean()) {
+            Files.deleteIfExists(temp);
+            return -1;
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        listener.onProgress(rows);
+        return rows;
+    }
+
+    private static void writeCsv(Writer writer, Car car) throws IOException {
+        writer.write(Integer.toString(car.getId()));
+        writer.write(',');
+        writeCsvField(writer, car.getBrand());
+        writer.write(',');
+        writeCsvField(writer, car.getModel());
+        writer.write(',');
+        writer.write(Integer.toString(car.getYear()));
+        writer.write(',');
+        writer.write(car.getPrice() != null ? car.getPrice().toPlainString() : "");
+        writer.write(',');
+        writer.write(Integer.toString(car.getMileage()));
+        writer.write(',');
+        writeCsvField(writer, car.getColor());
+        writer.write(',');
+        writeCsvField(writer, car.getDescription());
+        writer.write(',');
+        writeCsvField(writer, car.getImagePath());
+        writer.write(',');
+        writer.write(car.getCreatedAt() != null ? car.getCreatedAt().toString() : "");
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static void writeJson(Writer writer, Car car) throws IOException {
+        writer.write("{\"id\":");
+        writer.write(Integer.toString(car.getId()));
+        writer.write(",\"brand\":");
+        writeJsonString(writer, car.getBrand());
+        writer.write(",\"model\":");
+        writeJsonString(writer, car.getModel());
+        writer.write(",\"year\":");
+        writer.write(Integer.toString(car.getYear()));
+        writer.write(",\"price\":");
+        writer.write(car.getPrice() != null ? car.getPrice().toPlainString() : "null");
+        writer.write(",\"mileage\":");
+        writer.write(Integer.toString(car.getMileage()));
+        writer.write(",\"color\":");
+        writeJsonString(writer, car.getColor());
+        writer.write(",\"description\":");
+        writeJsonString(writer, car.getDescription());
+        writer.write(",\"image_path\":");
+        writeJsonString(writer, car.getImagePath());
+        writer.write(",\"created_at\":");
+        writeJsonString(writer, car.getCreatedAt() != null ? car.getCreatedAt().toString() : null);
+        writer.write("}\n");
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': writer.write("\\\""); break;
+                case '\\': writer.write("\\\\"); break;
+                case '\n': writer.write("\\n"); break;
+                case '\r': writer.write("\\r"); break;
+                case '\t': writer.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,156 @@
+package com.carselling.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive ints. Avoids boxing every id into an Integer,
+ * which keeps membership checks allocation-free.
+ */
+public class IntHashSet {
+    // Ids are positive database keys, so 0 can mark an empty slot
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] slots;
+    private int size = 0;
+    private boolean containsZero = false;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        slots = new int[capacity];
+    }
+
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (true) {
+            int current = slots[index];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) > slots.length * LOAD_FACTOR) {
+            rehash(slots.length << 1);
+        }
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (true) {
+            int current = slots[index];
+            if (current == EMPTY) {
+                slots[index] = value;
+                size++;
+                return true;
+            }
+            if (current == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean remove(int value) {
+        if (value == EMPTY) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (true) {
+            int current = slots[index];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == value) {
+                break;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        slots[index] = EMPTY;
+        size--;
+        int gap = index;
+        index = (index + 1) & mask;
+        while (slots[index] != EMPTY) {
+            int home = mix(slots[index]) & mask;
+            boolean movable = gap <= index ? (home <= gap || home > index) : (home <= gap && home > index);
+            if (movable) {
+                slots[gap] = slots[index];
+                slots[index] = EMPTY;
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+        containsZero = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        if (containsZero) {
+            result[i++] = 0;
+        }
+        for (int value : slots) {
+            if (value != EMPTY) {
+                result[i++] = value;
+            }
+        }
+        return result;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] old = slots;
+        slots = new int[newCapacity];
+        size = containsZero ? 1 : 0;
+        for (int value : old) {
+            if (value != EMPTY) {
+                add(value);
+            }
+        }
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
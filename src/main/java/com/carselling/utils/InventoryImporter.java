@@ -0,0 +1,561 @@
+package com.carselling.utils;
+
+import com.carselling.database.BatchInsertResult;
+import com.carselling.database.CarRepository;
+import com.carselling.models.Car;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Streams a CSV or JSON Lines inventory file into the cars table.
+ *
+ * The calling thread parses and validates one record at a time and hands valid cars to a
+ * writer thread through a bounded queue; the writer inserts them with
+ * {@link CarRepository#createCars(List, int)}. Memory use stays constant regardless of file size.
+ */
+public class InventoryImporter {
+
+    public enum Format {
+        CSV,
+        JSON_LINES;
+
+        public static Format fromFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".json") || lower.endsWith(".jsonl") || lower.endsWith(".ndjson")
+                    ? JSON_LINES
+                    : CSV;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(Progress progress);
+    }
+
+    // Marks the end of the stream for the writer thread
+    private static final Car END_OF_INPUT = new Car();
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final CarRepository carRepository;
+    private final int userId;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public InventoryImporter(CarRepository carRepository, int userId) {
+        this(carRepository, userId,
+                ConfigLoader.getIntProperty("db.batch.chunkSize", 500),
+                ConfigLoader.getIntProperty("import.queueCapacity", 5000));
+    }
+
+    public InventoryImporter(CarRepository carRepository, int userId, int batchSize, int queueCapacity) {
+        this.carRepository = carRepository;
+        this.userId = userId;
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = Math.max(this.batchSize, queueCapacity);
+    }
+
+    public Progress importFile(File file, Format format, ProgressListener listener, BooleanSupplier cancelled)
+            throws IOException {
+        Progress progress = new Progress(file.length());
+        BlockingQueue<Car> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<RuntimeException> writerFailure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try {
+                drainQueue(queue, progress, cancelled);
+            } catch (RuntimeException e) {
+                writerFailure.set(e);
+            }
+        }, "inventory-import-writer");
+        writer.setDaemon(true);
+        writer.start();
+        BooleanSupplier stopped = () -> cancelled.getAsBoolean() || writerFailure.get() != null;
+
+        long lastReport = 0;
+        try (CountingInputStream counter = new CountingInputStream(new FileInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(counter, StandardCharsets.UTF_8), 1 << 16)) {
+
+            RecordReader records = format == Format.CSV ? new CsvRecordReader(reader) : new JsonLinesRecordReader(reader);
+            while (!stopped.getAsBoolean()) {
+                progress.bytesRead = counter.getCount();
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    listener.onProgress(progress);
+                }
+
+                Map<String, String> record;
+                try {
+                    record = records.next();
+                } catch (IllegalArgumentException e) {
+                    // The reader has already moved past the malformed record, so only that one is lost
+                    progress.reject(progress.rowsRead.incrementAndGet(), "Malformed record: " + e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+
+                long rowNumber = progress.rowsRead.incrementAndGet();
+                try {
+                    Car car = CarValidator.parse(userId,
+                            record.get("brand"), record.get("model"), record.get("year"), record.get("price"),
+                            record.get("mileage"), record.get("color"), record.get("description"),
+                            record.get("image_path"));
+                    if (!offer(queue, car, writer, stopped)) {
+                        break;
+                    }
+                } catch (CarValidator.ValidationException e) {
+                    progress.reject(rowNumber, e.getMessage());
+                }
+            }
+        } finally {
+            progress.cancelled = cancelled.getAsBoolean();
+            if (stopped.getAsBoolean() || !writer.isAlive()) {
+                // Nothing queued will be inserted now; make room for the end marker
+                queue.clear();
+            }
+            if (!offer(queue, END_OF_INPUT, writer, () -> false)) {
+                writer.interrupt();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (writerFailure.get() != null) {
+            throw writerFailure.get();
+        }
+        progress.finished = true;
+        progress.bytesRead = progress.totalBytes;
+        listener.onProgress(progress);
+        return progress;
+    }
+
+    private void drainQueue(BlockingQueue<Car> queue, Progress progress, BooleanSupplier cancelled) {
+        List<Car> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Car car;
+            try {
+                car = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (cancelled.getAsBoolean()) {
+                // Drop whatever is still queued or batched instead of inserting it
+                return;
+            }
+            if (car == END_OF_INPUT) {
+                flush(batch, progress);
+                return;
+            }
+            batch.add(car);
+            if (batch.size() >= batchSize) {
+                flush(batch, progress);
+            }
+        }
+    }
+
+    private void flush(List<Car> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BatchInsertResult result = carRepository.createCars(batch, batchSize);
+        progress.rowsInserted.addAndGet(result.getInsertedCount());
+        for (BatchInsertResult.Failure failure : result.getFailures()) {
+            progress.reject(-1, "Database rejected " + failure.getCar() + ": " + failure.getMessage());
+        }
+        batch.clear();
+    }
+
+    /**
+     * Queues {@code car} for the writer, waiting for room. Gives up and returns false once
+     * {@code stopped} is true or the writer thread has died, so a full queue that nobody is
+     * draining any more cannot block the import forever.
+     */
+    private static boolean offer(BlockingQueue<Car> queue, Car car, Thread writer, BooleanSupplier stopped) {
+        try {
+            while (!stopped.getAsBoolean() && writer.isAlive()) {
+                if (queue.offer(car, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Running totals for an import; safe to read from any thread.
+     */
+    public static class Progress {
+        private final long startedAt = System.nanoTime();
+        private final long totalBytes;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsInserted = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+        private volatile long bytesRead = 0;
+        private volatile boolean finished = false;
+        private volatile boolean cancelled = false;
+
+        private Progress(long totalBytes) {
+            this.totalBytes = totalBytes;
+        }
+
+        private void reject(long rowNumber, String message) {
+            rowsRejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(rowNumber > 0 ? "Row " + rowNumber + ": " + message : message);
+                }
+            }
+        }
+
+        public long getRowsRead() {
+            return rowsRead.get();
+        }
+
+        public long getRowsInserted() {
+            return rowsInserted.get();
+        }
+
+        public long getRowsRejected() {
+            return rowsRejected.get();
+        }
+
+        /**
+         * Fraction of the file consumed so far, between 0 and 1.
+         */
+        public double getFractionDone() {
+            return totalBytes <= 0 ? (finished ? 1.0 : 0.0) : Math.min(1.0, (double) bytesRead / totalBytes);
+        }
+
+        public double getRowsPerSecond() {
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            return seconds <= 0 ? 0 : rowsInserted.get() / seconds;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * The first rejection messages (capped so a bad file cannot exhaust memory).
+         */
+        public List<String> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+    }
+
+    private interface RecordReader {
+        Map<String, String> next() throws IOException;
+    }
+
+    /**
+     * RFC 4180 style CSV with a header row. Quoted fields may contain commas, escaped quotes
+     * and line breaks.
+     */
+    private static final class CsvRecordReader implements RecordReader {
+        private final BufferedReader reader;
+        private final String[] header;
+
+        private CsvRecordReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> columns = readRow();
+            if (columns == null) {
+                header = new String[0];
+                return;
+            }
+            header = new String[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                header[i] = normalizeKey(columns.get(i));
+            }
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            List<String> row;
+            do {
+                row = readRow();
+                if (row == null) {
+                    return null;
+                }
+            } while (row.size() == 1 && row.get(0).isEmpty()); // skip blank lines
+
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.length && i < row.size(); i++) {
+                record.put(header[i], row.get(i));
+            }
+            return record;
+        }
+
+        private List<String> readRow() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i >= line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // Quoted field spans a line break
+                    String continuation = reader.readLine();
+                    if (continuation == null) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    field.append('\n');
+                    line = continuation;
+                    i = 0;
+                    continue;
+                }
+
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * One flat JSON object per line. Lines holding only '[' or ']' and trailing commas are
+     * tolerated, so a pretty-printed array with one object per line also streams.
+     */
+    private static final class JsonLinesRecordReader implements RecordReader {
+        private final BufferedReader reader;
+
+        private JsonLinesRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.endsWith(",")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+                }
+                if (trimmed.isEmpty() || trimmed.equals("[") || trimmed.equals("]")) {
+                    continue;
+                }
+                return parseObject(trimmed);
+            }
+            return null;
+        }
+
+        private Map<String, String> parseObject(String json) {
+            Map<String, String> record = new HashMap<>();
+            int[] pos = {0};
+            skipWhitespace(json, pos);
+            expect(json, pos, '{');
+            skipWhitespace(json, pos);
+            if (peek(json, pos) == '}') {
+                return record;
+            }
+            while (true) {
+                skipWhitespace(json, pos);
+                String key = parseString(json, pos);
+                skipWhitespace(json, pos);
+                expect(json, pos, ':');
+                skipWhitespace(json, pos);
+                record.put(normalizeKey(key), parseValue(json, pos));
+                skipWhitespace(json, pos);
+                char c = next(json, pos);
+                if (c == '}') {
+                    return record;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}' at position " + (pos[0] - 1));
+                }
+            }
+        }
+
+        private String parseValue(String json, int[] pos) {
+            char c = peek(json, pos);
+            if (c == '"') {
+                return parseString(json, pos);
+            }
+            int start = pos[0];
+            while (pos[0] < json.length() && ",}] \t".indexOf(json.charAt(pos[0])) < 0) {
+                pos[0]++;
+            }
+            String literal = json.substring(start, pos[0]);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || c == '{' || c == '[') {
+                throw new IllegalArgumentException("Unsupported JSON value at position " + start);
+            }
+            return literal;
+        }
+
+        private String parseString(String json, int[] pos) {
+            expect(json, pos, '"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next(json, pos);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next(json, pos);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 't': value.append('\t'); break;
+                    case 'r': value.append('\r'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        value.append(parseUnicodeEscape(json, pos));
+                        break;
+                    default: value.append(escaped); break;
+                }
+            }
+        }
+
+        private static char parseUnicodeEscape(String json, int[] pos) {
+            if (pos[0] + 4 > json.length()) {
+                throw new IllegalArgumentException("Truncated \\u escape at position " + pos[0]);
+            }
+            String hex = json.substring(pos[0], pos[0] + 4);
+            try {
+                char c = (char) Integer.parseInt(hex, 16);
+                pos[0] += 4;
+                return c;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid \\u escape '" + hex + "' at position " + pos[0]);
+            }
+        }
+
+        private static char next(String json, int[] pos) {
+            char c = peek(json, pos);
+            pos[0]++;
+            return c;
+        }
+
+        private static char peek(String json, int[] pos) {
+            if (pos[0] >= json.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON object");
+            }
+            return json.charAt(pos[0]);
+        }
+
+        private static void expect(String json, int[] pos, char expected) {
+            if (peek(json, pos) != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at position " + pos[0]);
+            }
+            pos[0]++;
+        }
+
+        private static void skipWhitespace(String json, int[] pos) {
+            while (pos[0] < json.length() && Character.isWhitespace(json.charAt(pos[0]))) {
+                pos[0]++;
+            }
+        }
+    }
+
+    // Accepts "Image Path", "image-path" or "imagePath" as image_path
+    private static String normalizeKey(String key) {
+        String trimmed = key.replace('\uFEFF', ' ').trim();
+        StringBuilder normalized = new StringBuilder(trimmed.length() + 4);
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == ' ' || c == '-') {
+                normalized.append('_');
+            } else if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(trimmed.charAt(i - 1))) {
+                normalized.append('_').append(Character.toLowerCase(c));
+            } else {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private volatile long count = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+}
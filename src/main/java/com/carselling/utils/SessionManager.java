@@ -3,14 +3,21 @@ package com.carselling.utils;
 import com.carselling.models.User;
 
 public class SessionManager {
-    private static User currentUser = null;
+    private static volatile User currentUser = null;
+    // Ids of the current user's watchlisted cars, so membership checks need no query
+    private static IntHashSet watchlistCarIds = new IntHashSet();
     
     private SessionManager() {
         // Private constructor to prevent instantiation
     }
     
-    public static void setCurrentUser(User user) {
+    /**
+     * Starts a session for {@code user} with the ids of the cars on their watchlist, loaded
+     * by the caller so that no one sees the new user with an empty watchlist.
+     */
+    public static synchronized void setCurrentUser(User user, IntHashSet watchlistCarIds) {
         currentUser = user;
+        SessionManager.watchlistCarIds = watchlistCarIds != null ? watchlistCarIds : new IntHashSet();
     }
     
     public static User getCurrentUser() {
@@ -22,11 +29,29 @@ public class SessionManager {
     }
     
     public static void logout() {
-        currentUser = null;
+        synchronized (SessionManager.class) {
+            currentUser = null;
+            watchlistCarIds = new IntHashSet();
+        }
     }
     
     public static int getCurrentUserId() {
         return currentUser != null ? currentUser.getId() : -1;
     }
+    
+    public static synchronized boolean isInWatchlist(int carId) {
+        return currentUser != null && watchlistCarIds.contains(carId);
+    }
+    
+    public static synchronized void watchlistAdded(int userId, int carId) {
+        if (userId == getCurrentUserId()) {
+            watchlistCarIds.add(carId);
+        }
+    }
+    
+    public static synchronized void watchlistRemoved(int userId, int carId) {
+        if (userId == getCurrentUserId()) {
+            watchlistCarIds.remove(carId);
+        }
+    }
 }
-
@@ -0,0 +1,109 @@
+package com.carselling.utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps each distinct string to a small int code and back. Columns with few distinct values,
+ * such as brand or color, can then be stored as ints and compared by code. Code 0 is null.
+ *
+ * Codes are never reused or removed, so a dictionary that lives as long as the process
+ * should be given a maximum size; once it is full, new values get {@link #NO_CODE}.
+ * Encoding a value seen before and decoding are lock-free; only a new value takes the lock.
+ * Decoding is safe for any code the reader obtained through a happens-before edge (a lock,
+ * a future, ...).
+ */
+public class StringDictionary {
+
+    /**
+     * Returned by {@link #encode} for a new value when the dictionary is full.
+     */
+    public static final int NO_CODE = -1;
+
+    private final int maxSize;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile String[] lowerValues = new String[16];
+    private volatile int size = 1;
+
+    public StringDictionary() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * A dictionary that holds at most {@code maxSize} distinct values.
+     */
+    public StringDictionary(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Returns the code for {@code value}, assigning the next one if it is new, or
+     * {@link #NO_CODE} if it is new and the dictionary is full.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer existing = codes.get(value);
+        return existing != null ? existing : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+
+        int code = size;
+        if (code > maxSize) {
+            return NO_CODE;
+        }
+        if (code == values.length) {
+            values = Arrays.copyOf(values, code * 2);
+            lowerValues = Arrays.copyOf(lowerValues, code * 2);
+        }
+        values[code] = value;
+        lowerValues[code] = value.toLowerCase(Locale.ROOT);
+        codes.put(value, code);
+        size = code + 1;
+        return code;
+    }
+
+    /**
+     * The shared instance equal to {@code value}, so equal strings are held once; a new
+     * value is returned as is once the dictionary is full.
+     */
+    public String intern(String value) {
+        int code = encode(value);
+        return code == NO_CODE ? value : decode(code);
+    }
+
+    public String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * Number of codes handed out, including 0 for null.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Marks the codes whose value contains {@code fragment}, ignoring case, the way the
+     * search filters use LIKE '%fragment%'. Indexed by code; null never matches.
+     */
+    public boolean[] containing(String fragment) {
+        String needle = fragment.toLowerCase(Locale.ROOT);
+        int count = size;
+        String[] lower = lowerValues;
+        boolean[] matches = new boolean[count];
+        for (int code = 1; code < count; code++) {
+            matches[code] = lower[code].contains(needle);
+        }
+        return matches;
+    }
+}
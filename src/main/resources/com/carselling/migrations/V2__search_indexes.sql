@@ -0,0 +1,7 @@
+-- Single-column indexes behind the search filters
+
+CREATE INDEX idx_cars_brand ON cars(brand);
+CREATE INDEX idx_cars_model ON cars(model);
+CREATE INDEX idx_cars_year ON cars(year);
+CREATE INDEX idx_cars_price ON cars(price);
+CREATE INDEX idx_cars_user ON cars(user_id);
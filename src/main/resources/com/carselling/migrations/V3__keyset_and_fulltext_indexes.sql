@@ -0,0 +1,5 @@
+-- Backs keyset pagination on (created_at, id)
+CREATE INDEX idx_cars_created ON cars(created_at, id);
+
+-- Backs free-text search; MATCH() must list exactly these columns
+CREATE FULLTEXT INDEX idx_cars_fulltext ON cars(brand, model, description);
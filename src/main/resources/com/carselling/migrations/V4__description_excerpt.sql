@@ -0,0 +1,4 @@
+-- First 100 characters of the description, computed by MySQL so grid queries skip the TEXT column
+ALTER TABLE cars ADD COLUMN description_excerpt VARCHAR(103) GENERATED ALWAYS AS (
+    CASE WHEN CHAR_LENGTH(description) > 100 THEN CONCAT(LEFT(description, 100), '...') ELSE description END
+) STORED;
@@ -0,0 +1,7 @@
+-- Covering indexes so listing queries are answered from the index alone
+
+CREATE INDEX idx_cars_listing ON cars(created_at, id, user_id, brand, model, year,
+    price, mileage, color, image_path, description_excerpt);
+
+CREATE INDEX idx_cars_user_listing ON cars(user_id, created_at, id, brand, model, year,
+    price, mileage, color, image_path, description_excerpt);
@@ -0,0 +1,13 @@
+-- Lets clients fetch only the listings changed since their last refresh. Millisecond
+-- precision keeps changes made within the same second apart.
+ALTER TABLE cars ADD COLUMN updated_at TIMESTAMP(3) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+CREATE INDEX idx_cars_updated ON cars(updated_at);
+
+-- One row per deleted listing so clients can drop it from their view
+CREATE TABLE IF NOT EXISTS car_tombstones (
+    car_id INT PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_car_tombstones_deleted (deleted_at)
+);
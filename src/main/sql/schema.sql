@@ -1,4 +1,6 @@
 -- Car Selling Application Database Schema
+-- Reference snapshot of the latest schema. The app builds it from the versioned scripts in
+-- src/main/resources/com/carselling/migrations and records them in schema_version.
 
 CREATE DATABASE IF NOT EXISTS car_selling_db;
 USE car_selling_db;
@@ -25,9 +27,20 @@ CREATE TABLE IF NOT EXISTS cars (
     description TEXT,
     image_path VARCHAR(255),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    description_excerpt VARCHAR(103) GENERATED ALWAYS AS (
+        CASE WHEN CHAR_LENGTH(description) > 100 THEN CONCAT(LEFT(description, 100), '...') ELSE description END
+    ) STORED,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Deleted listings, so clients refreshing incrementally can drop them
+CREATE TABLE IF NOT EXISTS car_tombstones (
+    car_id INT PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_car_tombstones_deleted (deleted_at)
+);
+
 -- Watchlist Table
 CREATE TABLE IF NOT EXISTS watchlist (
     id INT PRIMARY KEY AUTO_INCREMENT,
@@ -45,4 +58,8 @@ CREATE INDEX idx_cars_model ON cars(model);
 CREATE INDEX idx_cars_year ON cars(year);
 CREATE INDEX idx_cars_price ON cars(price);
 CREATE INDEX idx_cars_user ON cars(user_id);
-
+CREATE INDEX idx_cars_created ON cars(created_at, id);
+CREATE FULLTEXT INDEX idx_cars_fulltext ON cars(brand, model, description);
+CREATE INDEX idx_cars_listing ON cars(created_at, id, user_id, brand, model, year, price, mileage, color, image_path, description_excerpt);
+CREATE INDEX idx_cars_user_listing ON cars(user_id, created_at, id, brand, model, year, price, mileage, color, image_path, description_excerpt);
+CREATE INDEX idx_cars_updated ON cars(updated_at);